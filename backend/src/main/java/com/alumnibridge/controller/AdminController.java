@@ -3,9 +3,25 @@ package com.alumnibridge.controller;
 import com.alumnibridge.entity.User;
 import com.alumnibridge.repository.EventRegistrationRepository;
 import com.alumnibridge.repository.UserRepository;
+import com.alumnibridge.service.AlumniImportService;
+import com.alumnibridge.service.DirectoryExportService;
+import com.alumnibridge.service.DirectoryFacetCounters;
+import com.alumnibridge.service.ImportJob;
+import com.alumnibridge.service.UserDirectoryIndex;
+import com.alumnibridge.service.UserService;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -13,27 +29,43 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
+    private static final int MAX_USERS_PAGE = 500;
+
     private final UserRepository userRepository;
     private final EventRegistrationRepository regRepository;
+    private final DirectoryFacetCounters facetCounters;
+    private final AlumniImportService importService;
+    private final DirectoryExportService exportService;
+    private final UserService userService;
 
-    public AdminController(UserRepository ur, EventRegistrationRepository er) {
+    public AdminController(UserRepository ur, EventRegistrationRepository er, DirectoryFacetCounters fc,
+                           AlumniImportService is, DirectoryExportService es, UserService us) {
         this.userRepository = ur;
         this.regRepository = er;
+        this.facetCounters = fc;
+        this.importService = is;
+        this.exportService = es;
+        this.userService = us;
     }
 
     @GetMapping("/stats")
     public ResponseEntity<?> stats() {
         long total = userRepository.count();
-        long students = userRepository.findByRole(User.Role.STUDENT).size();
-        long alumni = userRepository.findByRole(User.Role.ALUMNI).size();
+        long students = facetCounters.count(UserDirectoryIndex.Dimension.ROLE, User.Role.STUDENT.name());
+        long alumni = facetCounters.count(UserDirectoryIndex.Dimension.ROLE, User.Role.ALUMNI.name());
         return ResponseEntity.ok(
                 java.util.Map.of("total", total, "students", students, "alumni", alumni)
         );
     }
 
+    // Pages of users in id order; pass the returned nextAfterId to get the next page
     @GetMapping("/users")
-    public ResponseEntity<List<Map<String, Object>>> allUsers() {
-        List<Map<String, Object>> users = userRepository.findAll().stream()
+    public ResponseEntity<Map<String, Object>> allUsers(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_USERS_PAGE));
+        List<User> rows = userRepository.findByIdGreaterThan(afterId, PageRequest.of(0, pageSize, Sort.by("id")));
+        List<Map<String, Object>> users = rows.stream()
             .map(user -> Map.<String, Object>of(
                 "id", user.getId(),
                 "email", user.getEmail(),
@@ -44,7 +76,11 @@ public class AdminController {
                 "isOnline", user.isOnline()
             ))
             .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("users", users);
+        body.put("nextAfterId", rows.size() == pageSize ? rows.get(rows.size() - 1).getId() : null);
+        return ResponseEntity.ok(body);
     }
 
     @GetMapping("/event-registrations")
@@ -52,4 +88,72 @@ public class AdminController {
         // can be improved
         return ResponseEntity.ok(regRepository.findAll());
     }
+
+    // ============================
+    // BULK IMPORT (CSV / JSONL)
+    // ============================
+    @PostMapping("/import")
+    public ResponseEntity<?> startImport(@RequestParam("file") MultipartFile file,
+                                         @RequestParam(required = false) String format) {
+        try {
+            ImportJob job = importService.start(file, format);
+            return ResponseEntity.accepted().body(job.snapshot());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body(Map.of("message", "Could not store upload"));
+        }
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> importProgress(@PathVariable String jobId) {
+        return importService.find(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.snapshot()))
+                .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "Import job not found")));
+    }
+
+    // Full per-row error report (row, email, error)
+    @GetMapping("/import/{jobId}/errors")
+    public ResponseEntity<?> importErrors(@PathVariable String jobId) {
+        ImportJob job = importService.find(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("message", "Import job not found"));
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-" + jobId + "-errors.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(job.getErrorReport()));
+    }
+
+    // ============================
+    // STREAMING EXPORT (CSV / NDJSON)
+    // ============================
+
+    // Same filters as /api/users/search; rows are streamed, never collected in memory
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String degree,
+            @RequestParam(required = false) String institute,
+            @RequestParam(required = false) Integer batchYear,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "all") String skillMatch) {
+        String fmt;
+        try {
+            fmt = DirectoryExportService.normalizeFormat(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        RoaringBitmap ids = userService.matchingUserIds(q, degree, institute, batchYear, role,
+                skills, !"any".equalsIgnoreCase(skillMatch));
+        StreamingResponseBody body = out -> exportService.export(ids, fmt, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + fmt + "\"")
+                .contentType(MediaType.parseMediaType("csv".equals(fmt) ? "text/csv" : "application/x-ndjson"))
+                .body(body);
+    }
 }
@@ -1,52 +1,115 @@
 package com.alumnibridge.controller;
 
+import com.alumnibridge.dto.BatchMemberDto;
+import com.alumnibridge.dto.KeysetCursor;
 import com.alumnibridge.entity.Batch;
-import com.alumnibridge.entity.User;
-import com.alumnibridge.repository.BatchRepository;
-import com.alumnibridge.repository.UserRepository;
+import com.alumnibridge.repository.ProfileRepository;
+import com.alumnibridge.service.DirectoryFacetCounters;
+import com.alumnibridge.service.ReferenceDataRegistry;
+import com.alumnibridge.service.UserDirectoryIndex;
+import com.alumnibridge.service.UserDirectoryIndex.Dimension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
 public class BatchController {
 
-    private final BatchRepository batchRepository;
-    private final UserRepository userRepository;
+    private static final int MAX_PAGE_SIZE = 200;
 
-    public BatchController(BatchRepository batchRepository, UserRepository userRepository) {
-        this.batchRepository = batchRepository;
-        this.userRepository = userRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final ProfileRepository profileRepository;
+    private final DirectoryFacetCounters facetCounters;
+    private final UserDirectoryIndex directoryIndex;
+
+    public BatchController(ReferenceDataRegistry referenceData, ProfileRepository profileRepository,
+                           DirectoryFacetCounters facetCounters, UserDirectoryIndex directoryIndex) {
+        this.referenceData = referenceData;
+        this.profileRepository = profileRepository;
+        this.facetCounters = facetCounters;
+        this.directoryIndex = directoryIndex;
     }
 
+    // Served from memory; member counts come from the facet counters, not a per-batch COUNT.
+    // The ETag changes when a batch is added or any count moves.
     @GetMapping("/batches")
-    public List<Batch> getAllBatches() {
-        return batchRepository.findAll();
+    public ResponseEntity<List<Map<String, Object>>> getAllBatches(WebRequest request) {
+        String etag = "\"batches-" + referenceData.version() + "-" + facetCounters.version() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Batch batch : referenceData.batches()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", batch.getId());
+            item.put("year", batch.getYear());
+            item.put("memberCount", memberCount(batch));
+            result.add(item);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(result);
     }
-    
+
     @GetMapping("/batches/{id}")
-    public ResponseEntity<Map<String, Object>> getBatchWithUsers(@PathVariable Long id) {
-        Batch batch = batchRepository.findById(id).orElse(null);
+    public ResponseEntity<?> getBatchWithUsers(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Batch batch = referenceData.findBatch(id).orElse(null);
         if (batch == null) {
             return ResponseEntity.notFound().build();
         }
-        
-        List<User> users = userRepository.findAll().stream()
-            .filter(user -> user.getProfile() != null && 
-                           user.getProfile().getBatch() != null && 
-                           user.getProfile().getBatch().getId().equals(id))
-            .collect(Collectors.toList());
-        
+
+        KeysetCursor position;
+        try {
+            position = cursor != null && !cursor.isBlank() ? KeysetCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long total = position != null ? position.getTotalEstimate() : memberCount(batch);
+
+        // one extra row tells us whether another page exists
+        List<BatchMemberDto> members = profileRepository.findBatchMembersAfter(
+                id,
+                position != null ? position.getName() : "",
+                position != null ? position.getId() : 0L,
+                PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (members.size() > pageSize) {
+            members = members.subList(0, pageSize);
+            BatchMemberDto last = members.get(pageSize - 1);
+            nextCursor = KeysetCursor.byName(last.getName(), last.getId(), total).encode();
+        }
+
         Map<String, Object> response = new HashMap<>();
         response.put("id", batch.getId());
         response.put("year", batch.getYear());
-        response.put("users", users);
-        
+        response.put("memberCount", total);
+        if (batch.getYear() != null) {
+            response.put("studentCount", directoryIndex.match("STUDENT", null, null, batch.getYear()).getCardinality());
+            response.put("alumniCount", directoryIndex.match("ALUMNI", null, null, batch.getYear()).getCardinality());
+        }
+        response.put("users", members);
+        response.put("nextCursor", nextCursor);
+        response.put("limit", pageSize);
+
         return ResponseEntity.ok(response);
     }
+
+    private long memberCount(Batch batch) {
+        return batch.getYear() == null ? 0 : facetCounters.count(Dimension.BATCH_YEAR, batch.getYear().toString());
+    }
 }
@@ -1,19 +1,24 @@
 package com.alumnibridge.controller;
 
-import com.alumnibridge.entity.Message;
+import com.alumnibridge.entity.ConversationSummary;
 import com.alumnibridge.entity.User;
-import com.alumnibridge.entity.ConnectionRequest;
-import com.alumnibridge.repository.MessageRepository;
 import com.alumnibridge.repository.UserRepository;
-import com.alumnibridge.repository.ConnectionRequestRepository;
 import com.alumnibridge.security.AppUserDetails;
+import com.alumnibridge.security.StompPrincipal;
+import com.alumnibridge.service.ChatSyncService;
+import com.alumnibridge.service.ConnectionGraph;
+import com.alumnibridge.service.ConversationService;
+import com.alumnibridge.service.MessageWriteBehind;
+import com.alumnibridge.service.ReadReceiptService;
+import com.alumnibridge.service.UserDirectoryIndex;
+import com.alumnibridge.service.UserQueueSender;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,16 +28,27 @@ import java.util.stream.Collectors;
 @RequestMapping("/api")
 public class ChatController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final UserQueueSender userQueues;
     private final UserRepository userRepository;
-    private final MessageRepository messageRepository;
-    private final ConnectionRequestRepository connectionRepository;
+    private final ConnectionGraph connectionGraph;
+    private final ConversationService conversationService;
+    private final ReadReceiptService readReceipts;
+    private final UserDirectoryIndex directoryIndex;
+    private final ChatSyncService chatSyncService;
 
-    public ChatController(SimpMessagingTemplate t, UserRepository ur, MessageRepository mr, ConnectionRequestRepository cr) {
-        this.messagingTemplate = t;
+    // page size for conversation history
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    public ChatController(UserQueueSender uq, UserRepository ur, ConnectionGraph cg, ConversationService cs,
+                          ReadReceiptService rr, UserDirectoryIndex di, ChatSyncService ss) {
+        this.userQueues = uq;
         this.userRepository = ur;
-        this.messageRepository = mr;
-        this.connectionRepository = cr;
+        this.connectionGraph = cg;
+        this.conversationService = cs;
+        this.readReceipts = rr;
+        this.directoryIndex = di;
+        this.chatSyncService = ss;
     }
 
     // Update user's last active time (heartbeat)
@@ -100,20 +116,14 @@ public class ChatController {
         
         AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
         Long currentUserId = userDetails.getUser().getId();
-        User currentUser = userDetails.getUser();
-        
-        // Get all accepted connections
-        List<User> connectedUsers = new ArrayList<>();
-        
-        // Connections where current user sent request
-        connectionRepository.findBySender(currentUser).stream()
-            .filter(cr -> cr.getStatus() == ConnectionRequest.Status.ACCEPTED)
-            .forEach(cr -> connectedUsers.add(cr.getReceiver()));
         
-        // Connections where current user received request
-        connectionRepository.findByReceiver(currentUser).stream()
-            .filter(cr -> cr.getStatus() == ConnectionRequest.Status.ACCEPTED)
-            .forEach(cr -> connectedUsers.add(cr.getSender()));
+        // Accepted connections from the in-memory graph, loaded in one query
+        List<Long> connectedIds = new ArrayList<>();
+        for (int id : connectionGraph.connectionsOf(currentUserId)) {
+            connectedIds.add((long) id);
+        }
+        List<User> connectedUsers = userRepository.findAllWithProfileByIdIn(connectedIds);
+        Map<Long, ConversationSummary> summaries = conversationService.summariesFor(currentUserId);
         
         // Build response with online status
         List<Map<String, Object>> response = connectedUsers.stream()
@@ -131,12 +141,14 @@ public class ChatController {
                     userMap.put("pictureUrl", user.getProfile().getPictureUrl());
                 }
                 
-                // Get last message with this user
-                List<Message> messages = messageRepository.findConversation(currentUserId, user.getId());
-                if (!messages.isEmpty()) {
-                    Message lastMsg = messages.get(messages.size() - 1);
-                    userMap.put("lastMessage", lastMsg.getContent());
-                    userMap.put("lastMessageAt", lastMsg.getSentAt());
+                // Last message with this user, from the conversation summary
+                ConversationSummary summary = summaries.get(user.getId());
+                if (summary != null) {
+                    userMap.put("lastMessage", summary.getPreview());
+                    userMap.put("lastMessageAt", summary.getLastMessageAt());
+                    userMap.put("unreadCount", readReceipts.unreadFor(currentUserId, summary));
+                } else {
+                    userMap.put("unreadCount", 0);
                 }
                 
                 return userMap;
@@ -160,6 +172,29 @@ public class ChatController {
         return ResponseEntity.ok(response);
     }
 
+    // Delta sync for the chat page: messages after `after` and the conversations changed since
+    // (epoch, version). 304 when nothing changed, answered from memory.
+    @GetMapping("/chat/sync")
+    public ResponseEntity<?> sync(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "0") long version,
+            @RequestParam(required = false) Long epoch,
+            @RequestParam(defaultValue = "200") int limit,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(401).build();
+        }
+
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        int pageSize = limit > 0 ? Math.min(limit, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+        Map<String, Object> delta = chatSyncService.sync(userDetails.getUser().getId(), epoch, version, after, pageSize);
+        if (delta == null) {
+            return ResponseEntity.status(304).build();
+        }
+        return ResponseEntity.ok(delta);
+    }
+
     // REST API endpoints for HTTP chat
     @GetMapping("/messages")
     public ResponseEntity<List<Map<String, Object>>> getConversations(Authentication authentication) {
@@ -175,34 +210,41 @@ public class ChatController {
         currentUser.setLastActiveAt(LocalDateTime.now());
         userRepository.save(currentUser);
 
-        List<Message> messages = messageRepository.findBySenderIdOrRecipientId(currentUserId);
-        
-        Map<Long, Map<String, Object>> conversationMap = new LinkedHashMap<>();
+        // One summary row per conversation, newest first
+        Map<Long, ConversationSummary> summaries = conversationService.summariesFor(currentUserId);
+        // profile fetch-joined: it is a non-lazy @OneToOne and would otherwise load one row per user
+        Map<Long, User> users = new HashMap<>();
+        for (User u : summaries.isEmpty() ? List.<User>of() : userRepository.findAllWithProfileByIdIn(summaries.keySet())) {
+            users.put(u.getId(), u);
+        }
         
-        for (Message msg : messages) {
-            Long otherUserId = msg.getSender().getId().equals(currentUserId) ? 
-                msg.getReceiver().getId() : msg.getSender().getId();
-            User otherUser = msg.getSender().getId().equals(currentUserId) ? 
-                msg.getReceiver() : msg.getSender();
+        List<Map<String, Object>> conversations = new ArrayList<>();
+        summaries.forEach((otherUserId, summary) -> {
+            User otherUser = users.get(otherUserId);
+            if (otherUser == null) return;
             
-            if (!conversationMap.containsKey(otherUserId)) {
-                Map<String, Object> conversation = new HashMap<>();
-                conversation.put("userId", otherUserId);
-                conversation.put("userName", otherUser.getName());
-                conversation.put("lastMessage", msg.getContent());
-                conversation.put("lastMessageAt", msg.getSentAt());
-                conversation.put("isOnline", otherUser.isOnline());
-                conversation.put("lastActiveAt", otherUser.getLastActiveAt());
-                conversationMap.put(otherUserId, conversation);
-            }
-        }
+            Map<String, Object> conversation = new HashMap<>();
+            conversation.put("userId", otherUserId);
+            conversation.put("userName", otherUser.getName());
+            conversation.put("lastMessage", summary.getPreview());
+            conversation.put("lastMessageAt", summary.getLastMessageAt());
+            conversation.put("unreadCount", readReceipts.unreadFor(currentUserId, summary));
+            conversation.put("isOnline", otherUser.isOnline());
+            conversation.put("lastActiveAt", otherUser.getLastActiveAt());
+            conversations.add(conversation);
+        });
         
-        return ResponseEntity.ok(new ArrayList<>(conversationMap.values()));
+        return ResponseEntity.ok(conversations);
     }
 
+    // One page of history, newest page first: pass `before` (nextBefore) for older pages,
+    // or `after` (nextAfter) for messages that arrived since
     @GetMapping("/messages/{userId}")
-    public ResponseEntity<List<Map<String, Object>>> getMessages(
+    public ResponseEntity<Map<String, Object>> getMessages(
             @PathVariable Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
             Authentication authentication) {
         
         if (authentication == null) {
@@ -217,23 +259,34 @@ public class ChatController {
         currentUser.setLastActiveAt(LocalDateTime.now());
         userRepository.save(currentUser);
 
-        List<Message> messages = messageRepository.findConversation(currentUserId, userId);
-        
-        List<Map<String, Object>> response = messages.stream()
-            .map(msg -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("id", msg.getId());
-                map.put("senderId", msg.getSender().getId());
-                map.put("senderName", msg.getSender().getName());
-                map.put("recipientId", msg.getReceiver().getId());
-                map.put("recipientName", msg.getReceiver().getName());
-                map.put("content", msg.getContent());
-                map.put("timestamp", msg.getSentAt());
-                return map;
-            })
-            .collect(Collectors.toList());
-        
-        return ResponseEntity.ok(response);
+        int pageSize = limit > 0 ? Math.min(limit, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        Map<String, Object> page = conversationService.page(currentUserId, userId, before, after, pageSize);
+
+        // Showing the newest messages reads them; readUpTo is how far the other user has read
+        if (before == null && page.get("newestId") != null) {
+            readReceipts.ack(currentUserId, userId, (Long) page.get("newestId"));
+        }
+        page.put("readUpTo", readReceipts.readUpTo(userId, currentUserId));
+        return ResponseEntity.ok(page);
+    }
+
+    // The current user has read the conversation with userId up to messageId
+    @PostMapping("/messages/{userId}/read")
+    public ResponseEntity<?> markRead(
+            @PathVariable Long userId,
+            @RequestBody Map<String, Object> request,
+            Authentication authentication) {
+
+        if (authentication == null) {
+            return ResponseEntity.status(401).build();
+        }
+        if (!(request.get("messageId") instanceof Number messageId)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "messageId is required"));
+        }
+
+        AppUserDetails userDetails = (AppUserDetails) authentication.getPrincipal();
+        readReceipts.ack(userDetails.getUser().getId(), userId, messageId.longValue());
+        return ResponseEntity.accepted().build();
     }
 
     @PostMapping("/messages")
@@ -263,51 +316,79 @@ public class ChatController {
             return ResponseEntity.status(400).body(Map.of("error", "Invalid user"));
         }
 
-        Message message = new Message();
-        message.setSender(senderOpt.get());
-        message.setReceiver(recipientOpt.get());
-        message.setContent(content);
-        message.setSentAt(LocalDateTime.now());
-
-        Message saved = messageRepository.save(message);
+        MessageWriteBehind.QueuedMessage saved;
+        try {
+            saved = conversationService.send(senderId, recipientId, content, false, null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
 
         Map<String, Object> response = new HashMap<>();
-        response.put("id", saved.getId());
-        response.put("senderId", saved.getSender().getId());
-        response.put("senderName", saved.getSender().getName());
-        response.put("recipientId", saved.getReceiver().getId());
-        response.put("recipientName", saved.getReceiver().getName());
-        response.put("content", saved.getContent());
-        response.put("timestamp", saved.getSentAt());
+        response.put("id", saved.id());
+        response.put("senderId", saved.senderId());
+        response.put("senderName", senderOpt.get().getName());
+        response.put("recipientId", saved.receiverId());
+        response.put("recipientName", recipientOpt.get().getName());
+        response.put("content", saved.content());
+        response.put("timestamp", saved.sentAt());
 
         return ResponseEntity.ok(response);
     }
 
     // WebSocket endpoint for real-time chat
-    // payload: {senderId, receiverId, content, isEventLink, eventId}
+    // payload: {receiverId, content, isEventLink, eventId}; the sender is the session's user
     @MessageMapping("/chat.send")
-    public void sendWebSocketMessage(ChatMessagePayload payload) {
-        User sender = userRepository.findById(payload.getSenderId()).orElse(null);
-        User receiver = userRepository.findById(payload.getReceiverId()).orElse(null);
-        if (sender == null || receiver == null) return;
-        Message m = new Message();
-        m.setSender(sender);
-        m.setReceiver(receiver);
-        m.setContent(payload.getContent());
-        m.setEventLink(payload.isEventLink());
-        m.setEventId(payload.getEventId());
-        messageRepository.save(m);
+    public void sendWebSocketMessage(ChatMessagePayload payload, Principal principal) {
+        if (!(principal instanceof StompPrincipal sender)) return;
+        Long receiverId = payload.getReceiverId();
+
+        // receiver checked against the in-memory directory and connection graph
+        if (receiverId == null || directoryIndex.entryOf(receiverId) == null
+                || !connectionGraph.isConnected(sender.id(), receiverId)) {
+            sendError(sender.id(), "You can only message your connections", payload.getContent());
+            return;
+        }
+
+        MessageWriteBehind.QueuedMessage saved;
+        try {
+            saved = conversationService.send(sender.id(), receiverId, payload.getContent(),
+                    payload.isEventLink(), payload.getEventId());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // invalid or queue full: tell the sender instead of dropping the message silently
+            sendError(sender.id(), e.getMessage(), payload.getContent());
+            return;
+        }
+        payload.setId(saved.id());
+        payload.setSenderId(sender.id());
         // send to receiver queue
-        messagingTemplate.convertAndSend("/queue/messages/" + payload.getReceiverId(), payload);
+        userQueues.sendToUser(receiverId, "/queue/messages/" + receiverId, payload);
+    }
+
+    private void sendError(Long userId, String message, String content) {
+        userQueues.sendToUser(userId, "/queue/errors/" + userId,
+                Map.of("message", message, "content", String.valueOf(content)));
+    }
+
+    // Read ack over the socket; payload: {otherUserId, messageId}
+    @MessageMapping("/chat.read")
+    public void markReadWebSocket(ReadAckPayload payload, Principal principal) {
+        if (!(principal instanceof StompPrincipal reader)) return;
+        if (payload.getOtherUserId() == null || payload.getMessageId() == null) return;
+        readReceipts.ack(reader.id(), payload.getOtherUserId(), payload.getMessageId());
     }
 
     public static class ChatMessagePayload {
+        private Long id;
         private Long senderId;
         private Long receiverId;
         private String content;
         private boolean isEventLink;
         private Long eventId;
         // getters/setters
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
         public Long getSenderId() { return senderId; }
         public void setSenderId(Long s) { this.senderId = s; }
         public Long getReceiverId() { return receiverId; }
@@ -319,4 +400,13 @@ public class ChatController {
         public Long getEventId() { return eventId; }
         public void setEventId(Long e) { this.eventId = e; }
     }
+
+    public static class ReadAckPayload {
+        private Long otherUserId;
+        private Long messageId;
+        public Long getOtherUserId() { return otherUserId; }
+        public void setOtherUserId(Long o) { this.otherUserId = o; }
+        public Long getMessageId() { return messageId; }
+        public void setMessageId(Long m) { this.messageId = m; }
+    }
 }
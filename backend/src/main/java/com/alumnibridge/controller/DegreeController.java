@@ -1,8 +1,12 @@
 package com.alumnibridge.controller;
 
 import com.alumnibridge.entity.Degree;
-import com.alumnibridge.repository.DegreeRepository;
+import com.alumnibridge.service.ReferenceDataRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -10,14 +14,19 @@ import java.util.List;
 @RequestMapping("/api")
 public class DegreeController {
 
-    private final DegreeRepository degreeRepository;
+    private final ReferenceDataRegistry referenceData;
 
-    public DegreeController(DegreeRepository degreeRepository) {
-        this.degreeRepository = degreeRepository;
+    public DegreeController(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
     }
 
+    // Served from memory; the ETag changes only when a degree is added
     @GetMapping("/degrees")
-    public List<Degree> getAllDegrees() {
-        return degreeRepository.findAll();
+    public ResponseEntity<List<Degree>> getAllDegrees(WebRequest request) {
+        String etag = "\"degrees-" + referenceData.version() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(referenceData.degrees());
     }
 }
@@ -1,7 +1,12 @@
 package com.alumnibridge.controller;
 
+import com.alumnibridge.dto.BulkRespondRequest;
 import com.alumnibridge.dto.UserDto;
 import com.alumnibridge.exception.ResourceNotFoundException;
+import com.alumnibridge.service.ConnectionNotifier;
+import com.alumnibridge.service.ConnectionPathService;
+import com.alumnibridge.service.DirectoryFacetCounters;
+import com.alumnibridge.service.RecommendationService;
 import com.alumnibridge.service.UserService;
 
 import org.springframework.http.HttpStatus;
@@ -11,6 +16,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -18,10 +24,21 @@ import java.util.Map;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_BULK_IDS = 500;
+
     private final UserService userService;
+    private final DirectoryFacetCounters facetCounters;
+    private final RecommendationService recommendationService;
+    private final ConnectionPathService pathService;
+    private final ConnectionNotifier connectionNotifier;
 
-    public UserController(UserService s) {
+    public UserController(UserService s, DirectoryFacetCounters fc, RecommendationService rs, ConnectionPathService ps,
+                          ConnectionNotifier cn) {
         this.userService = s;
+        this.facetCounters = fc;
+        this.recommendationService = rs;
+        this.pathService = ps;
+        this.connectionNotifier = cn;
     }
 
     // ============================
@@ -73,16 +90,60 @@ public class UserController {
     // SEARCH USERS BY FILTERS
     // ============================
     @GetMapping("/search")
-    public ResponseEntity<List<UserDto>> search(
+    public ResponseEntity<?> search(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String degree,
             @RequestParam(required = false) String institute,
             @RequestParam(required = false) Integer batchYear,
-            @RequestParam(required = false) String role) {
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String skills,
+            @RequestParam(defaultValue = "all") String skillMatch,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean all) {
+
+        // skills=kafka,spring&skillMatch=any|all
+        boolean matchAllSkills = !"any".equalsIgnoreCase(skillMatch);
+
+        // Legacy unbounded list, only when explicitly asked for
+        if (all) {
+            return ResponseEntity.ok(
+                    userService.searchUsers(q, degree, institute, batchYear, role, skills, matchAllSkills)
+            );
+        }
 
-        return ResponseEntity.ok(
-                userService.searchUsers(q, degree, institute, batchYear, role)
-        );
+        try {
+            return ResponseEntity.ok(
+                    userService.searchUsersPage(q, degree, institute, batchYear, role,
+                            skills, matchAllSkills, cursor, limit)
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // ============================
+    // DIRECTORY FACET COUNTS
+    // ============================
+    @GetMapping("/facets")
+    public ResponseEntity<?> facets() {
+        return ResponseEntity.ok(facetCounters.snapshot());
+    }
+
+    // ============================
+    // PEOPLE YOU MAY KNOW
+    // ============================
+    @GetMapping("/recommendations")
+    public ResponseEntity<?> recommendations(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(recommendationService.recommendationsFor(userId, Math.max(1, Math.min(limit, 50))));
     }
 
     // ============================
@@ -128,10 +189,46 @@ public class UserController {
             return ResponseEntity.status(401).body("Unauthorized");
         }
 
-        userService.respondConnectionRequest(requestId, accept);
+        Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+        try {
+            userService.respondConnectionRequest(userId, requestId, accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", e.getMessage()));
+        }
         return ResponseEntity.ok(accept ? "Connection Accepted" : "Connection Rejected");
     }
 
+    // ============================
+    // BULK ACCEPT / REJECT
+    // ============================
+    @PostMapping("/connection-requests/bulk-respond")
+    public ResponseEntity<?> bulkRespond(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody BulkRespondRequest body) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (body.getRequestIds() == null || body.getRequestIds().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "requestIds is required"));
+        }
+        if (body.getRequestIds().size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "At most " + MAX_BULK_IDS + " request ids per request"));
+        }
+
+        Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+        Map<Long, String> outcomes = userService.respondConnectionRequests(userId, body.getRequestIds(), body.isAccept());
+
+        String done = body.isAccept() ? "ACCEPTED" : "REJECTED";
+        List<Map<String, Object>> results = new ArrayList<>();
+        outcomes.forEach((id, outcome) -> results.add(Map.of("requestId", id, "outcome", outcome)));
+        return ResponseEntity.ok(Map.of(
+                "updated", outcomes.values().stream().filter(done::equals).count(),
+                "results", results));
+    }
+
     // ============================
     // GET PENDING CONNECTION REQUESTS
     // ============================
@@ -147,6 +244,23 @@ public class UserController {
         return ResponseEntity.ok(userService.getPendingRequests(userId));
     }
 
+    // ============================
+    // CONNECTION EVENTS SINCE (resync after a websocket reconnect)
+    // ============================
+    @GetMapping("/connection-events")
+    public ResponseEntity<?> getConnectionEvents(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Long epoch) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(connectionNotifier.eventsSince(userId, since, epoch));
+    }
+
     // ============================
     // GET ACTIVE CONNECTIONS
     // ============================
@@ -195,6 +309,76 @@ public class UserController {
         return ResponseEntity.ok(userService.getConnectionStatus(currentUserId, otherUserId));
     }
 
+    // ============================
+    // BULK CONNECTION STATUS (one call per result page)
+    // ============================
+    @PostMapping("/connection-status/bulk")
+    public ResponseEntity<?> getConnectionStatuses(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody List<Long> userIds) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (userIds.size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "At most " + MAX_BULK_IDS + " user ids per request"));
+        }
+
+        Long currentUserId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(userService.getConnectionStatuses(currentUserId, userIds));
+    }
+
+    // ============================
+    // MUTUAL CONNECTIONS
+    // ============================
+    @GetMapping("/{id}/mutual-connections")
+    public ResponseEntity<?> getMutualConnections(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int limit) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        Long currentUserId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(userService.getMutualConnections(currentUserId, id, Math.max(0, Math.min(limit, 50))));
+    }
+
+    @PostMapping("/mutual-connections/bulk")
+    public ResponseEntity<?> getMutualConnectionCounts(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody List<Long> userIds) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (userIds.size() > MAX_BULK_IDS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "At most " + MAX_BULK_IDS + " user ids per request"));
+        }
+
+        Long currentUserId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(userService.getMutualConnectionCounts(currentUserId, userIds));
+    }
+
+    // ============================
+    // DEGREES OF SEPARATION
+    // ============================
+    @GetMapping("/{id}/path")
+    public ResponseEntity<?> getPath(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @PathVariable Long id) {
+
+        if (userDetails == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+
+        Long currentUserId = userService.getUserIdByEmail(userDetails.getUsername());
+        return ResponseEntity.ok(pathService.pathBetween(currentUserId, id));
+    }
+
     // ============================
     // GET SENT CONNECTION REQUESTS
     // ============================
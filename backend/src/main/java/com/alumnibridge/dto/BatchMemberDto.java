@@ -0,0 +1,17 @@
+package com.alumnibridge.dto;
+
+import com.alumnibridge.entity.User;
+import lombok.*;
+
+// Lightweight batch roster row, built directly by a JPQL constructor projection
+@Getter @AllArgsConstructor
+public class BatchMemberDto {
+    private final Long id;
+    private final String name;
+    private final String email;
+    private final User.Role role;
+    private final String institute;
+    private final String degreeName;
+    private final String headline;
+    private final String pictureUrl;
+}
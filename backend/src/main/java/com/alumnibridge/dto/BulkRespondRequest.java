@@ -0,0 +1,11 @@
+package com.alumnibridge.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class BulkRespondRequest {
+    private List<Long> requestIds;
+    private boolean accept;
+}
@@ -0,0 +1,32 @@
+package com.alumnibridge.dto;
+
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.User;
+import lombok.*;
+
+// Flat snapshot of the fields the directory indexes are keyed on.
+// Also used as a JPQL constructor projection when the indexes are rebuilt.
+@Getter @AllArgsConstructor
+public class DirectoryEntry {
+    private final Long userId;
+    private final String name;
+    private final User.Role role;
+    private final String institute;
+    private final Integer batchYear;
+    private final String degreeName;
+
+    // Must be called while the user's profile graph can still be loaded
+    public static DirectoryEntry of(User u) {
+        Profile p = u.getProfile();
+        if (p == null) {
+            return new DirectoryEntry(u.getId(), u.getName(), u.getRole(), null, null, null);
+        }
+        return new DirectoryEntry(
+                u.getId(),
+                u.getName(),
+                u.getRole(),
+                p.getInstitute(),
+                p.getBatch() != null ? p.getBatch().getYear() : null,
+                p.getDegree() != null ? p.getDegree().getName() : null);
+    }
+}
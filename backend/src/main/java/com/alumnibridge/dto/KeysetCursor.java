@@ -0,0 +1,41 @@
+package com.alumnibridge.dto;
+
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position handed to clients as a URL-safe token: the last (name, id) seen,
+// or (score, id) for relevance-ranked name searches. The first page's total estimate
+// rides along so later pages don't recount.
+@Getter @AllArgsConstructor
+public class KeysetCursor {
+    private final String name;
+    private final Double score;
+    private final Long id;
+    private final long totalEstimate;
+
+    public static KeysetCursor byName(String name, Long id, long totalEstimate) {
+        return new KeysetCursor(name, null, id, totalEstimate);
+    }
+
+    public static KeysetCursor byScore(double score, Long id, long totalEstimate) {
+        return new KeysetCursor("", score, id, totalEstimate);
+    }
+
+    public String encode() {
+        String raw = id + "\n" + totalEstimate + "\n" + (score != null ? score : "") + "\n" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 4);
+            Double score = parts[2].isEmpty() ? null : Double.valueOf(parts[2]);
+            return new KeysetCursor(parts[3], score, Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.alumnibridge.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class UserSearchPage {
+    private List<UserDto> items;
+    private String nextCursor;   // null on the last page
+    private long totalEstimate;
+    private int limit;
+    private Map<String, Long> skillFacets; // skill -> matching users
+}
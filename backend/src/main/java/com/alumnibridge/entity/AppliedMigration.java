@@ -0,0 +1,19 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// A one-off data migration that has already run, so it isn't repeated on the next start
+@Entity
+@Table(name = "applied_migrations")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class AppliedMigration {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -7,7 +7,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 @Entity
-@Table(name = "batches")
+@Table(name = "batches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_batches_year", columnNames = "year"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Batch {
     @Id
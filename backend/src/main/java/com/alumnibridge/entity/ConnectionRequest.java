@@ -6,7 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "connections")
+@Table(name = "connections",
+        uniqueConstraints = @UniqueConstraint(name = "uk_connections_pair", columnNames = {"pair_low_id", "pair_high_id"}))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class ConnectionRequest {
     @Id
@@ -23,11 +24,27 @@ public class ConnectionRequest {
     @JoinColumn(name = "receiver_id")
     private User receiver;
 
+    // canonical pair key: the smaller and larger of the two user ids, so one row per pair
+    @Column(name = "pair_low_id")
+    private Long pairLowId;
+
+    @Column(name = "pair_high_id")
+    private Long pairHighId;
+
     @Enumerated(EnumType.STRING)
     private Status status;
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @PrePersist
+    @PreUpdate
+    void fillPairKey() {
+        if (sender != null && receiver != null) {
+            pairLowId = Math.min(sender.getId(), receiver.getId());
+            pairHighId = Math.max(sender.getId(), receiver.getId());
+        }
+    }
+
     public enum Status {
         PENDING, ACCEPTED, REJECTED
     }
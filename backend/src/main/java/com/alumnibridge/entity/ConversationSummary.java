@@ -0,0 +1,64 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// One row per conversation: the latest message, each side's read high-water mark and how
+// many messages each side hasn't read. Written in the same transaction as every message insert.
+@Entity
+@Table(name = "conversation_summary",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summary_pair", columnNames = {"pair_low_id", "pair_high_id"}),
+        indexes = @Index(name = "idx_conversation_summary_high", columnList = "pair_high_id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class ConversationSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // same pair key as messages: the smaller and larger user id
+    @Column(name = "pair_low_id", nullable = false)
+    private Long pairLowId;
+
+    @Column(name = "pair_high_id", nullable = false)
+    private Long pairHighId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_sender_id")
+    private Long lastSenderId;
+
+    @Column(length = 200)
+    private String preview;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    // highest message id the low and high user have read
+    @Column(name = "read_low_id", nullable = false)
+    private long readLowId;
+
+    @Column(name = "read_high_id", nullable = false)
+    private long readHighId;
+
+    // unread messages for the low and high user
+    @Column(name = "unread_low", nullable = false)
+    private int unreadLow;
+
+    @Column(name = "unread_high", nullable = false)
+    private int unreadHigh;
+
+    public Long otherUserId(Long userId) {
+        return userId.equals(pairLowId) ? pairHighId : pairLowId;
+    }
+
+    public int unreadFor(Long userId) {
+        return userId.equals(pairLowId) ? unreadLow : unreadHigh;
+    }
+
+    public long readUpToFor(Long userId) {
+        return userId.equals(pairLowId) ? readLowId : readHighId;
+    }
+}
@@ -4,7 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "degrees")
+@Table(name = "degrees",
+        uniqueConstraints = @UniqueConstraint(name = "uk_degrees_name", columnNames = "name"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Degree {
     @Id
@@ -0,0 +1,20 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A node number for time-ordered ids, leased by one running instance at a time
+@Entity
+@Table(name = "id_node_slots")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class IdNodeSlot {
+    @Id
+    private Integer slot;
+
+    @Column(length = 64)
+    private String owner;
+
+    // epoch millis; the slot is free once this has passed
+    @Column(name = "lease_until", nullable = false)
+    private long leaseUntil;
+}
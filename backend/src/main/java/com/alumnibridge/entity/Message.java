@@ -6,11 +6,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        indexes = @Index(name = "idx_messages_pair_id", columnList = "pair_low_id, pair_high_id, id"))
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Message {
+    // assigned by MessageIdGenerator when the message is accepted
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     // sender
@@ -23,6 +24,13 @@ public class Message {
     @JoinColumn(name="receiver_id")
     private User receiver;
 
+    // conversation key: the smaller and larger of the two user ids, so history pages walk one index range
+    @Column(name = "pair_low_id")
+    private Long pairLowId;
+
+    @Column(name = "pair_high_id")
+    private Long pairHighId;
+
     @Column(length = 2000)
     private String content;
 
@@ -31,4 +39,13 @@ public class Message {
     private Long eventId; // optional
 
     private LocalDateTime sentAt = LocalDateTime.now();
+
+    @PrePersist
+    @PreUpdate
+    void fillPairKey() {
+        if (sender != null && receiver != null) {
+            pairLowId = Math.min(sender.getId(), receiver.getId());
+            pairHighId = Math.max(sender.getId(), receiver.getId());
+        }
+    }
 }
@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "profiles")
+@Table(name = "profiles",
+        indexes = {
+                @Index(name = "idx_profiles_institute", columnList = "institute"),
+                // batch rosters: filter, keyset and order all come from this index
+                @Index(name = "idx_profiles_batch_name", columnList = "batch_id, user_name, user_id")
+        })
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Profile {
 
@@ -34,6 +39,10 @@ public class Profile {
 
     private String pictureUrl;
 
+    // copy of users.name so batch rosters can be ordered from idx_profiles_batch_name
+    @Column(name = "user_name")
+    private String userName;
+
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -45,4 +54,10 @@ public class Profile {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "degree_id")
     private Degree degree;
+
+    @PrePersist
+    @PreUpdate
+    void copyUserName() {
+        if (user != null) userName = user.getName();
+    }
 }
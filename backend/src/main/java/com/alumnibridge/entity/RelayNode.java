@@ -0,0 +1,17 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A running backend instance; heartbeat_at (epoch millis) tells the others it is alive
+@Entity
+@Table(name = "relay_nodes")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class RelayNode {
+    @Id
+    @Column(name = "node_id", length = 64)
+    private String nodeId;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private long heartbeatAt;
+}
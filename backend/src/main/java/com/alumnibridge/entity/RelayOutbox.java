@@ -0,0 +1,30 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A user-queue message handed to the other nodes; rows are read by polling and expire after a minute
+@Entity
+@Table(name = "relay_outbox", indexes = @Index(name = "idx_relay_outbox_created", columnList = "created_at"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class RelayOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "origin_node", length = 64, nullable = false)
+    private String originNode;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String destination;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    // epoch millis on the origin node, for delivery latency
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+}
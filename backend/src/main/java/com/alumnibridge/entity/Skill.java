@@ -0,0 +1,21 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "skills")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class Skill {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // normalized form, used for lookups
+    @Column(nullable = false, unique = true, length = 64)
+    private String name;
+
+    // spelling of the first user who entered it
+    @Column(length = 64)
+    private String displayName;
+}
@@ -6,7 +6,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users",
+        indexes = @Index(name = "idx_users_name_id", columnList = "name, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -40,6 +41,11 @@ public class User {
     // For tracking online/active status
     private LocalDateTime lastActiveAt;
 
+    // Bumped in the database by each directory change (UserRepository.bumpDirectoryVersion),
+    // never written from here; null for users that were never changed
+    @Column(insertable = false, updatable = false)
+    private Long directoryVersion;
+
     // Check if user is online (active within last 5 minutes)
     public boolean isOnline() {
         if (lastActiveAt == null) return false;
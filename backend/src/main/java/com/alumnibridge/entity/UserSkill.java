@@ -0,0 +1,24 @@
+package com.alumnibridge.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Posting row: user has skill. Derived from Profile.skills on every profile save.
+@Entity
+@Table(name = "user_skills",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "skill_id"}),
+        indexes = @Index(name = "idx_user_skills_skill", columnList = "skill_id, user_id"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class UserSkill {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "skill_id", nullable = false)
+    private Skill skill;
+}
@@ -0,0 +1,7 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.AppliedMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AppliedMigrationRepository extends JpaRepository<AppliedMigration, String> {
+}
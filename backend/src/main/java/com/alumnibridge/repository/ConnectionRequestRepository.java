@@ -3,8 +3,11 @@ package com.alumnibridge.repository;
 import com.alumnibridge.entity.ConnectionRequest;
 import com.alumnibridge.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,7 +17,74 @@ public interface ConnectionRequestRepository extends JpaRepository<ConnectionReq
     List<ConnectionRequest> findByReceiver(User receiver);
     Optional<ConnectionRequest> findBySenderAndReceiver(User sender, User receiver);
     
-    // Find connection in either direction
-    @Query("SELECT c FROM ConnectionRequest c WHERE (c.sender = :user1 AND c.receiver = :user2) OR (c.sender = :user2 AND c.receiver = :user1)")
-    Optional<ConnectionRequest> findConnectionBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
+    Optional<ConnectionRequest> findByPairLowIdAndPairHighId(Long pairLowId, Long pairHighId);
+
+    // Find connection in either direction: one probe on uk_connections_pair
+    default Optional<ConnectionRequest> findConnectionBetweenUsers(User user1, User user2) {
+        return findByPairLowIdAndPairHighId(Math.min(user1.getId(), user2.getId()), Math.max(user1.getId(), user2.getId()));
+    }
+
+    // (id, senderId, receiverId, status) of the row for a pair, if any
+    @Query("SELECT c.id, c.sender.id, c.receiver.id, c.status FROM ConnectionRequest c " +
+           "WHERE c.pairLowId = :low AND c.pairHighId = :high")
+    List<Object[]> findRowByPair(@Param("low") Long low, @Param("high") Long high);
+
+    @Query("SELECT c.id, c.sender.id, c.receiver.id, c.status FROM ConnectionRequest c WHERE c.id = :id")
+    List<Object[]> findRowById(@Param("id") Long id);
+
+    // A rejected pair can be asked again, by either side
+    @Modifying
+    @Query(value = "UPDATE connections SET sender_id = :senderId, receiver_id = :receiverId, status = 'PENDING', created_at = :now " +
+                   "WHERE pair_low_id = :low AND pair_high_id = :high AND status = 'REJECTED'",
+           nativeQuery = true)
+    int reviveRejected(@Param("senderId") Long senderId, @Param("receiverId") Long receiverId,
+                       @Param("low") Long low, @Param("high") Long high, @Param("now") LocalDateTime now);
+
+    // Compare-and-set on status, e.g. answer a request only while it is still pending and only as its receiver
+    @Modifying
+    @Query("UPDATE ConnectionRequest c SET c.status = :status " +
+           "WHERE c.id = :id AND c.receiver.id = :receiverId AND c.status = :expected")
+    int updateStatusIf(@Param("id") Long id, @Param("receiverId") Long receiverId,
+                       @Param("expected") ConnectionRequest.Status expected,
+                       @Param("status") ConnectionRequest.Status status);
+
+    // (id, senderId, receiverId, status) for the given requests, locked until the transaction ends
+    @Query(value = "SELECT id, sender_id, receiver_id, status FROM connections WHERE id IN (:ids) FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> lockRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Answer many requests at once; only pending ones addressed to this receiver change
+    @Modifying
+    @Query("UPDATE ConnectionRequest c SET c.status = :status " +
+           "WHERE c.id IN :ids AND c.receiver.id = :receiverId AND c.status = :expected")
+    int updateStatusForReceiver(@Param("ids") Collection<Long> ids, @Param("receiverId") Long receiverId,
+                                @Param("expected") ConnectionRequest.Status expected,
+                                @Param("status") ConnectionRequest.Status status);
+
+    @Modifying
+    @Query("DELETE FROM ConnectionRequest c WHERE c.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    // Rows written before the pair key existed
+    @Query("SELECT COUNT(c) FROM ConnectionRequest c WHERE c.pairLowId IS NULL AND c.sender IS NOT NULL AND c.receiver IS NOT NULL")
+    long countMissingPairKeys();
+
+    @Modifying
+    @Query(value = "UPDATE connections SET pair_low_id = LEAST(sender_id, receiver_id), pair_high_id = GREATEST(sender_id, receiver_id) " +
+                   "WHERE pair_low_id IS NULL AND sender_id IS NOT NULL AND receiver_id IS NOT NULL",
+           nativeQuery = true)
+    int backfillPairKeys();
+
+    // (id, senderId, receiverId, status, createdAt) without loading the users
+    @Query("SELECT c.id, c.sender.id, c.receiver.id, c.status, c.createdAt FROM ConnectionRequest c " +
+           "WHERE c.receiver.id = :userId AND c.status = :status ORDER BY c.id")
+    List<Object[]> findRowsByReceiverAndStatus(@Param("userId") Long userId, @Param("status") ConnectionRequest.Status status);
+
+    @Query("SELECT c.id, c.sender.id, c.receiver.id, c.status, c.createdAt FROM ConnectionRequest c " +
+           "WHERE c.sender.id = :userId AND c.status = :status ORDER BY c.id")
+    List<Object[]> findRowsBySenderAndStatus(@Param("userId") Long userId, @Param("status") ConnectionRequest.Status status);
+
+    // (id, senderId, receiverId, status) for every request, oldest first
+    @Query("SELECT c.id, c.sender.id, c.receiver.id, c.status FROM ConnectionRequest c ORDER BY c.id")
+    List<Object[]> findAllEdges();
 }
@@ -0,0 +1,37 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    Optional<ConversationSummary> findByPairLowIdAndPairHighId(Long pairLowId, Long pairHighId);
+
+    // Every conversation a user is part of, newest first
+    @Query("SELECT s FROM ConversationSummary s WHERE s.pairLowId = :userId OR s.pairHighId = :userId ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummary> findForUser(@Param("userId") Long userId);
+
+    // The user's conversations with the given partners only, newest first
+    @Query("SELECT s FROM ConversationSummary s " +
+           "WHERE (s.pairLowId = :userId AND s.pairHighId IN :others) OR (s.pairHighId = :userId AND s.pairLowId IN :others) " +
+           "ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummary> findForUserWith(@Param("userId") Long userId, @Param("others") Collection<Long> others);
+
+    // Summaries for conversations from before this table, read as already seen
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summary " +
+                   "(pair_low_id, pair_high_id, last_message_id, last_sender_id, preview, last_message_at, " +
+                   "read_low_id, read_high_id, unread_low, unread_high) " +
+                   "SELECT m.pair_low_id, m.pair_high_id, m.id, m.sender_id, LEFT(m.content, 200), m.sent_at, m.id, m.id, 0, 0 " +
+                   "FROM messages m JOIN (SELECT MAX(id) AS id FROM messages WHERE pair_low_id IS NOT NULL " +
+                   "GROUP BY pair_low_id, pair_high_id) latest ON latest.id = m.id",
+           nativeQuery = true)
+    int backfillFromMessages();
+}
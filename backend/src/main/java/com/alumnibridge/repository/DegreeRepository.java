@@ -5,6 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface DegreeRepository extends JpaRepository<Degree, Long> {
-    // Use findFirstByName to handle potential duplicates in the database
+    // Names are unique (uk_degrees_name); duplicates from before the constraint are merged at startup
     Optional<Degree> findFirstByName(String name);
 }
@@ -2,7 +2,9 @@ package com.alumnibridge.repository;
 
 import com.alumnibridge.entity.Message;
 import com.alumnibridge.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
@@ -10,10 +12,32 @@ import java.util.List;
 public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findBySenderAndReceiver(User sender, User receiver);
     List<Message> findByReceiver(User receiver);
-    
-    @Query("SELECT m FROM Message m WHERE (m.sender.id = :userId OR m.receiver.id = :userId) ORDER BY m.sentAt DESC")
-    List<Message> findBySenderIdOrRecipientId(@Param("userId") Long userId);
-    
-    @Query("SELECT m FROM Message m WHERE (m.sender.id = :userId1 AND m.receiver.id = :userId2) OR (m.sender.id = :userId2 AND m.receiver.id = :userId1) ORDER BY m.sentAt ASC")
-    List<Message> findConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+
+    // One page of a conversation as (id, senderId, senderName, receiverId, receiverName, content, sentAt),
+    // keyed on the pair index with after < id < before; newest first
+    @Query("SELECT m.id, s.id, s.name, r.id, r.name, m.content, m.sentAt FROM Message m JOIN m.sender s JOIN m.receiver r " +
+           "WHERE m.pairLowId = :low AND m.pairHighId = :high AND m.id > :after AND m.id < :before ORDER BY m.id DESC")
+    List<Object[]> findPageNewestFirst(@Param("low") Long low, @Param("high") Long high,
+                                       @Param("after") Long after, @Param("before") Long before, Pageable page);
+
+    // Same rows, oldest first: what arrived after a message the client already has
+    @Query("SELECT m.id, s.id, s.name, r.id, r.name, m.content, m.sentAt FROM Message m JOIN m.sender s JOIN m.receiver r " +
+           "WHERE m.pairLowId = :low AND m.pairHighId = :high AND m.id > :after AND m.id < :before ORDER BY m.id ASC")
+    List<Object[]> findPageOldestFirst(@Param("low") Long low, @Param("high") Long high,
+                                       @Param("after") Long after, @Param("before") Long before, Pageable page);
+
+    // Same rows for every conversation of one user after a message id, oldest first
+    @Query("SELECT m.id, s.id, s.name, r.id, r.name, m.content, m.sentAt FROM Message m JOIN m.sender s JOIN m.receiver r " +
+           "WHERE (s.id = :userId OR r.id = :userId) AND m.id > :after ORDER BY m.id ASC")
+    List<Object[]> findForUserAfter(@Param("userId") Long userId, @Param("after") Long after, Pageable page);
+
+    // Rows written before the pair key existed
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.pairLowId IS NULL AND m.sender IS NOT NULL AND m.receiver IS NOT NULL")
+    long countMissingPairKeys();
+
+    @Modifying
+    @Query(value = "UPDATE messages SET pair_low_id = LEAST(sender_id, receiver_id), pair_high_id = GREATEST(sender_id, receiver_id) " +
+                   "WHERE pair_low_id IS NULL AND sender_id IS NOT NULL AND receiver_id IS NOT NULL",
+           nativeQuery = true)
+    int backfillPairKeys();
 }
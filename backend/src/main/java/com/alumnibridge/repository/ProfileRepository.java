@@ -1,6 +1,48 @@
 package com.alumnibridge.repository;
 
+import com.alumnibridge.dto.BatchMemberDto;
 import com.alumnibridge.entity.Profile;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
 
-public interface ProfileRepository extends JpaRepository<Profile, Long> {}
+public interface ProfileRepository extends JpaRepository<Profile, Long> {
+
+    // (userId, skills) for profiles that have free-form skills filled in
+    @Query("SELECT p.user.id, p.skills FROM Profile p WHERE p.skills IS NOT NULL AND p.skills <> ''")
+    List<Object[]> findUserIdsAndSkills();
+
+    // Batch roster page ordered by (name, id), strictly after the given keyset position.
+    // Filtered and ordered on profiles' copy of the name, so idx_profiles_batch_name
+    // (batch_id, user_name, user_id) serves the whole keyset; users is only joined for the page.
+    @Query("SELECT new com.alumnibridge.dto.BatchMemberDto(u.id, u.name, u.email, u.role, " +
+           "p.institute, d.name, p.headline, p.pictureUrl) " +
+           "FROM Profile p JOIN p.user u LEFT JOIN p.degree d " +
+           "WHERE p.batch.id = :batchId " +
+           "AND (p.userName > :afterName OR (p.userName = :afterName AND p.user.id > :afterId)) " +
+           "ORDER BY p.userName, p.user.id")
+    List<BatchMemberDto> findBatchMembersAfter(@Param("batchId") Long batchId,
+                                               @Param("afterName") String afterName,
+                                               @Param("afterId") Long afterId,
+                                               Pageable page);
+
+    // One-off: fill user_name on profiles written before it existed
+    @Modifying
+    @Query(value = "UPDATE profiles p SET user_name = (SELECT u.name FROM users u WHERE u.id = p.user_id) " +
+                   "WHERE p.user_name IS NULL",
+           nativeQuery = true)
+    int backfillUserNames();
+
+    // Re-point profiles at the surviving row when duplicate batches/degrees are merged
+    @Modifying
+    @Query(value = "UPDATE profiles SET batch_id = :keepId WHERE batch_id IN (:duplicateIds)", nativeQuery = true)
+    int reassignBatch(@Param("keepId") Long keepId, @Param("duplicateIds") Collection<Long> duplicateIds);
+
+    @Modifying
+    @Query(value = "UPDATE profiles SET degree_id = :keepId WHERE degree_id IN (:duplicateIds)", nativeQuery = true)
+    int reassignDegree(@Param("keepId") Long keepId, @Param("duplicateIds") Collection<Long> duplicateIds);
+}
@@ -0,0 +1,20 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.Skill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+
+public interface SkillRepository extends JpaRepository<Skill, Long> {
+    List<Skill> findByNameIn(Collection<String> names);
+
+    // Get-or-create without racing other writers: the unique name decides, and a name that is
+    // already there is left as it was. Any other error (e.g. a name too long) still fails.
+    @Modifying
+    @Query(value = "INSERT INTO skills (name, display_name) VALUES (:name, :displayName) ON DUPLICATE KEY UPDATE id = id",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("displayName") String displayName);
+}
@@ -1,12 +1,68 @@
 package com.alumnibridge.repository;
 
+import com.alumnibridge.dto.DirectoryEntry;
 import com.alumnibridge.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
-    List<User> findByNameContainingIgnoreCase(String q);
     List<User> findByRole(User.Role role);
+
+    List<User> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Ids of users whose email starts with the prefix (a range on the unique email index);
+    // the caller escapes % and _ with '!'
+    @Query("SELECT u.id FROM User u WHERE u.email LIKE CONCAT(:prefix, '%') ESCAPE '!' ORDER BY u.id")
+    List<Long> findIdsByEmailPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // Single user with profile, batch and degree loaded in the same statement
+    @EntityGraph(attributePaths = {"profile", "profile.batch", "profile.degree"})
+    Optional<User> findWithProfileById(Long id);
+
+    @EntityGraph(attributePaths = {"profile", "profile.batch", "profile.degree"})
+    Optional<User> findWithProfileByEmail(String email);
+
+    // Users with profile, batch and degree for a whole set of ids in one statement
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.profile p LEFT JOIN FETCH p.batch LEFT JOIN FETCH p.degree " +
+           "WHERE u.id IN :ids")
+    List<User> findAllWithProfileByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Lightweight rows used to (re)build the in-memory directory index
+    @Query("SELECT new com.alumnibridge.dto.DirectoryEntry(u.id, u.name, u.role, p.institute, b.year, d.name) " +
+           "FROM User u LEFT JOIN u.profile p LEFT JOIN p.batch b LEFT JOIN p.degree d")
+    List<DirectoryEntry> findDirectoryEntries();
+
+    // Directory change versions: the bump locks the row, so a user's changes are numbered in commit order
+    @Modifying
+    @Query(value = "UPDATE users SET directory_version = COALESCE(directory_version, 0) + 1 WHERE id = :id",
+           nativeQuery = true)
+    int bumpDirectoryVersion(@Param("id") Long id);
+
+    @Query(value = "SELECT COALESCE(directory_version, 0) FROM users WHERE id = :id", nativeQuery = true)
+    long findDirectoryVersion(@Param("id") Long id);
+
+    @Query(value = "SELECT id, COALESCE(directory_version, 0) FROM users WHERE id IN (:ids)", nativeQuery = true)
+    List<Object[]> findDirectoryVersions(@Param("ids") Collection<Long> ids);
+
+    // GROUP BY counts used to reconcile the in-memory facet counters
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countByRoleGrouped();
+
+    @Query("SELECT d.name, COUNT(p) FROM Profile p JOIN p.degree d GROUP BY d.name")
+    List<Object[]> countByDegreeGrouped();
+
+    @Query("SELECT p.institute, COUNT(p) FROM Profile p WHERE p.institute IS NOT NULL GROUP BY p.institute")
+    List<Object[]> countByInstituteGrouped();
+
+    @Query("SELECT b.year, COUNT(p) FROM Profile p JOIN p.batch b GROUP BY b.year")
+    List<Object[]> countByBatchYearGrouped();
 }
@@ -0,0 +1,11 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+    // First `limit` users matching spec ordered by (name, id), with profile, batch and degree fetched
+    List<User> findPageOrderByNameAndId(Specification<User> spec, int limit);
+}
@@ -0,0 +1,34 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<User> findPageOrderByNameAndId(Specification<User> spec, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<User> cq = cb.createQuery(User.class);
+        Root<User> root = cq.from(User.class);
+
+        // fetch first; the specification reuses these joins for its filters
+        Fetch<User, Profile> profile = root.fetch("profile", JoinType.LEFT);
+        profile.fetch("batch", JoinType.LEFT);
+        profile.fetch("degree", JoinType.LEFT);
+
+        Predicate where = spec.toPredicate(root, cq, cb);
+        if (where != null) cq.where(where);
+        cq.select(root).orderBy(cb.asc(root.get("name")), cb.asc(root.get("id")));
+
+        return em.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+}
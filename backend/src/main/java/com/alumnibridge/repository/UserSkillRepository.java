@@ -0,0 +1,25 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.UserSkill;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+
+public interface UserSkillRepository extends JpaRepository<UserSkill, Long> {
+
+    @Modifying
+    @Query("DELETE FROM UserSkill us WHERE us.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_skills (user_id, skill_id) SELECT :userId, s.id FROM skills s WHERE s.name IN (:names)",
+           nativeQuery = true)
+    int insertForUser(@Param("userId") Long userId, @Param("names") Collection<String> names);
+
+    // (userId, skillId) pairs used to rebuild the in-memory postings
+    @Query("SELECT us.user.id, us.skill.id FROM UserSkill us")
+    List<Object[]> findAllUserSkillIds();
+}
@@ -0,0 +1,108 @@
+package com.alumnibridge.repository;
+
+import com.alumnibridge.entity.Batch;
+import com.alumnibridge.entity.Degree;
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.entity.UserSkill;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Directory search filters compiled into a single criteria query over users/profiles/batches/degrees
+public final class UserSpecifications {
+
+    private UserSpecifications() {}
+
+    // Name queries (q) go through the in-memory trigram index instead of SQL LIKE
+    public static Specification<User> directoryFilter(String degree, String institute,
+                                                      Integer batchYear, String role) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (role != null && !role.isBlank()) {
+                List<User.Role> roles = new ArrayList<>();
+                for (String r : role.split(",")) {
+                    try {
+                        roles.add(User.Role.valueOf(r.trim().toUpperCase()));
+                    } catch (IllegalArgumentException ignored) {
+                        // unknown roles simply match nobody, like before
+                    }
+                }
+                predicates.add(roles.isEmpty() ? cb.disjunction() : root.get("role").in(roles));
+            }
+
+            if (institute != null && !institute.isBlank()) {
+                predicates.add(cb.equal(profile(root).get("institute"), institute.trim()));
+            }
+
+            if (degree != null && !degree.isBlank()) {
+                predicates.add(cb.equal(degree(profile(root)).get("name"), degree.trim()));
+            }
+
+            if (batchYear != null) {
+                predicates.add(cb.equal(batch(profile(root)).get("year"), batchYear));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Users having all (matchAll) or any of the given skill ids, via the user_skills postings
+    public static Specification<User> hasSkills(Collection<Long> skillIds, boolean matchAll) {
+        return (root, query, cb) -> {
+            Subquery<Long> sq = query.subquery(Long.class);
+            Root<UserSkill> us = sq.from(UserSkill.class);
+            Path<Long> userId = us.get("user").get("id");
+            sq.select(userId).where(us.get("skill").get("id").in(skillIds));
+            if (matchAll) {
+                sq.groupBy(userId).having(cb.equal(cb.countDistinct(us.get("skill").get("id")), (long) skillIds.size()));
+            }
+            return root.get("id").in(sq);
+        };
+    }
+
+    // Keyset continuation: (name, id) strictly after the given position
+    public static Specification<User> after(String name, Long id) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("name"), name),
+                cb.and(cb.equal(root.get("name"), name), cb.greaterThan(root.get("id"), id)));
+    }
+
+    // Reuse a fetch/join created by the caller so filtering doesn't add a second join
+    @SuppressWarnings("unchecked")
+    static Join<User, Profile> profile(Root<User> root) {
+        for (Fetch<User, ?> f : root.getFetches()) {
+            if (f.getAttribute().getName().equals("profile")) return (Join<User, Profile>) f;
+        }
+        for (Join<User, ?> j : root.getJoins()) {
+            if (j.getAttribute().getName().equals("profile")) return (Join<User, Profile>) j;
+        }
+        return root.join("profile", JoinType.LEFT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Join<Profile, Degree> degree(Join<User, Profile> profile) {
+        for (Fetch<Profile, ?> f : profile.getFetches()) {
+            if (f.getAttribute().getName().equals("degree")) return (Join<Profile, Degree>) f;
+        }
+        for (Join<Profile, ?> j : profile.getJoins()) {
+            if (j.getAttribute().getName().equals("degree")) return (Join<Profile, Degree>) j;
+        }
+        return profile.join("degree", JoinType.LEFT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Join<Profile, Batch> batch(Join<User, Profile> profile) {
+        for (Fetch<Profile, ?> f : profile.getFetches()) {
+            if (f.getAttribute().getName().equals("batch")) return (Join<Profile, Batch>) f;
+        }
+        for (Join<Profile, ?> j : profile.getJoins()) {
+            if (j.getAttribute().getName().equals("batch")) return (Join<Profile, Batch>) j;
+        }
+        return profile.join("batch", JoinType.LEFT);
+    }
+}
@@ -39,6 +39,11 @@ public class SecurityConfig {
                         .requestMatchers("GET", "/api/users/search").permitAll()
                         .requestMatchers("/api/test").permitAll()
                         .requestMatchers("/api/hash/**").permitAll()
+                        // browsers can't set headers on the handshake; STOMP CONNECT carries the JWT instead
+                        .requestMatchers("/ws/**").permitAll()
+                        .requestMatchers("/api/admin/import/**", "/api/admin/export/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
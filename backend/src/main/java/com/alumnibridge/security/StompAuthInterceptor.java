@@ -0,0 +1,100 @@
+package com.alumnibridge.security;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+
+/**
+ * Authenticates STOMP sessions: CONNECT must carry "Authorization: Bearer <jwt>", and the
+ * user is looked up once and bound to the session as a StompPrincipal. Later frames need
+ * that principal. Clients may only SEND to application destinations (/app/...), never
+ * straight to the broker, and may only subscribe to their own user queues
+ * (/queue/{name}/{userId}).
+ */
+@Component
+public class StompAuthInterceptor implements ChannelInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(StompAuthInterceptor.class);
+
+    private static final String APP_PREFIX = "/app/";
+    private static final Set<String> USER_QUEUES = Set.of("messages", "receipts", "errors", "connections");
+
+    private final JwtTokenProvider tokenProvider;
+    private final UserRepository userRepository;
+
+    public StompAuthInterceptor(JwtTokenProvider tokenProvider, UserRepository ur) {
+        this.tokenProvider = tokenProvider;
+        this.userRepository = ur;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) return message;
+
+        switch (accessor.getCommand()) {
+            case CONNECT, STOMP -> accessor.setUser(authenticate(accessor));
+            case SUBSCRIBE -> checkSubscription(accessor);
+            case SEND -> checkSend(accessor);
+            default -> { }
+        }
+        return message;
+    }
+
+    private StompPrincipal authenticate(StompHeaderAccessor accessor) {
+        String bearer = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(bearer) || !bearer.startsWith("Bearer ")) {
+            throw new MessagingException("Missing bearer token");
+        }
+        String token = bearer.substring(7);
+        if (!tokenProvider.validateToken(token)) {
+            throw new MessagingException("Invalid token");
+        }
+        User user = userRepository.findByEmail(tokenProvider.getUsernameFromJWT(token))
+                .orElseThrow(() -> new MessagingException("Unknown user"));
+        logger.debug("STOMP session {} authenticated as user {}", accessor.getSessionId(), user.getId());
+        return new StompPrincipal(user.getId(), user.getName(), user.getRole());
+    }
+
+    private StompPrincipal requireUser(StompHeaderAccessor accessor) {
+        if (!(accessor.getUser() instanceof StompPrincipal principal)) {
+            throw new MessagingException("Not authenticated");
+        }
+        return principal;
+    }
+
+    // Frames sent to the broker directly would skip the checks in the @MessageMapping handlers
+    private void checkSend(StompHeaderAccessor accessor) {
+        requireUser(accessor);
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            throw new MessagingException("Cannot send to " + destination);
+        }
+    }
+
+    // Only /queue/{name}/{userId} for a known queue and the subscriber's own id
+    private void checkSubscription(StompHeaderAccessor accessor) {
+        StompPrincipal principal = requireUser(accessor);
+        String destination = accessor.getDestination();
+        String[] parts = destination != null ? destination.split("/", -1) : new String[0];
+        boolean allowed = parts.length == 4
+                && parts[0].isEmpty()
+                && parts[1].equals("queue")
+                && USER_QUEUES.contains(parts[2])
+                && parts[3].equals(principal.getName());
+        if (!allowed) {
+            throw new MessagingException("Cannot subscribe to " + destination);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.alumnibridge.security;
+
+import com.alumnibridge.entity.User;
+
+import java.security.Principal;
+
+// The user behind a STOMP session, resolved once at CONNECT and kept for the session's lifetime.
+// getName() is the user id, which is what user destinations are keyed on.
+public record StompPrincipal(Long id, String displayName, User.Role role) implements Principal {
+
+    @Override
+    public String getName() {
+        return String.valueOf(id);
+    }
+}
@@ -0,0 +1,484 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.entity.Batch;
+import com.alumnibridge.entity.Degree;
+import com.alumnibridge.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk alumni onboarding from CSV (with a header row) or JSON Lines.
+ * The upload is spooled to disk and read row by row, so memory use is bounded by the
+ * chunk size. Each chunk is hashed on a bounded pool and written with JDBC batch inserts
+ * in its own transaction; rows that fail validation, name a degree that doesn't exist or
+ * hit an existing email are written to a per-job error report instead of aborting the
+ * import. A chunk the database rejects is retried row by row so only the bad rows fail.
+ */
+@Service
+public class AlumniImportService {
+    private static final Logger logger = LoggerFactory.getLogger(AlumniImportService.class);
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final long KEEP_FINISHED_JOBS_HOURS = 24;
+    // users/profiles string columns are VARCHAR(255)
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PasswordEncoder passwordEncoder;
+    private final ReferenceDataRegistry referenceData;
+    private final SkillService skillService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    // one import at a time; hashing fans out to a bounded pool
+    private final ExecutorService jobRunner = Executors.newSingleThreadExecutor(r -> new Thread(r, "alumni-import"));
+    private final ThreadPoolExecutor hashPool;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public AlumniImportService(NamedParameterJdbcTemplate jdbc,
+                               PasswordEncoder pe,
+                               ReferenceDataRegistry rd,
+                               SkillService ss,
+                               ApplicationEventPublisher ep,
+                               ObjectMapper om,
+                               PlatformTransactionManager tm,
+                               @Value("${app.import.chunk-size:500}") int chunkSize,
+                               @Value("${app.import.hash-threads:0}") int hashThreads) {
+        this.jdbc = jdbc;
+        this.passwordEncoder = pe;
+        this.referenceData = rd;
+        this.skillService = ss;
+        this.eventPublisher = ep;
+        this.objectMapper = om;
+        this.tx = new TransactionTemplate(tm);
+        this.chunkSize = Math.max(1, chunkSize);
+
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        // a full queue makes the reader hash on its own thread, which throttles reading
+        this.hashPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        hashPool.shutdownNow();
+    }
+
+    // ============================
+    // JOBS
+    // ============================
+    public ImportJob start(MultipartFile file, String format) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        String fmt = resolveFormat(format, file.getOriginalFilename());
+        evictOldJobs();
+
+        Path dir = Files.createTempDirectory("alumni-import-");
+        Path source = dir.resolve("source." + fmt);
+        file.transferTo(source);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), fmt,
+                Files.size(source), source, dir.resolve("errors.csv"));
+        jobs.put(job.getId(), job);
+        jobRunner.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<ImportJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private static String resolveFormat(String format, String fileName) {
+        String f = format;
+        if ((f == null || f.isBlank()) && fileName != null && fileName.contains(".")) {
+            f = fileName.substring(fileName.lastIndexOf('.') + 1);
+        }
+        f = f == null ? "" : f.trim().toLowerCase(Locale.ROOT);
+        return switch (f) {
+            case "csv" -> "csv";
+            case "jsonl", "ndjson", "json" -> "jsonl";
+            default -> throw new IllegalArgumentException("Unsupported import format, use csv or jsonl");
+        };
+    }
+
+    private void evictOldJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(KEEP_FINISHED_JOBS_HOURS);
+        jobs.values().removeIf(job -> {
+            if (!job.isDone() || job.getFinishedAt() == null) return false;
+            if (job.getFinishedAt().isAfter(cutoff)) return false;
+            try {
+                Files.deleteIfExists(job.getErrorReport());
+                Files.deleteIfExists(job.getErrorReport().getParent());
+            } catch (IOException ignored) {
+                // temp dir, best effort
+            }
+            return true;
+        });
+    }
+
+    // ============================
+    // PIPELINE
+    // ============================
+    private record Row(long number, Map<String, String> fields, String error) {
+        String get(String key) {
+            String v = fields.get(key);
+            return v == null || v.isBlank() ? null : v.trim();
+        }
+    }
+
+    private record Candidate(long row, String name, String email, String password, User.Role role,
+                             String institute, Integer batchYear, String degreeName, String linkedinUrl,
+                             String bio, String headline, String location, String skills) {}
+
+    private interface RowReader {
+        Row next() throws IOException;
+    }
+
+    private void run(ImportJob job) {
+        job.running();
+        logger.info("Import {} started ({}, {} bytes)", job.getId(), job.getFormat(), job.getTotalBytes());
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(job.getSource()));
+             BufferedReader in = new BufferedReader(new InputStreamReader(counted, StandardCharsets.UTF_8));
+             BufferedWriter report = Files.newBufferedWriter(job.getErrorReport(), StandardCharsets.UTF_8)) {
+
+            report.write("row,email,error\n");
+            RowReader rows = "csv".equals(job.getFormat()) ? csvRows(in) : jsonlRows(in);
+            Set<String> seenEmails = new HashSet<>();
+            List<Candidate> chunk = new ArrayList<>(chunkSize);
+
+            Row row;
+            while ((row = rows.next()) != null) {
+                job.getRowsRead().incrementAndGet();
+                try {
+                    chunk.add(validate(row, seenEmails));
+                } catch (IllegalArgumentException e) {
+                    reject(job, report, row.number(), row.get("email"), e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(job, report, chunk);
+                    chunk.clear();
+                }
+                job.getBytesRead().set(counted.count);
+            }
+            if (!chunk.isEmpty()) writeChunk(job, report, chunk);
+            job.getBytesRead().set(job.getTotalBytes());
+
+            job.finished(null);
+            logger.info("Import {} finished: {} imported, {} rejected", job.getId(),
+                    job.getImported().get(), job.getRejected().get());
+        } catch (Exception e) {
+            logger.warn("Import {} failed", job.getId(), e);
+            job.finished(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        } finally {
+            try {
+                Files.deleteIfExists(job.getSource());
+            } catch (IOException ignored) {
+                // temp file, best effort
+            }
+        }
+    }
+
+    private RowReader csvRows(BufferedReader in) throws IOException {
+        List<String> header = Csv.readRecord(in);
+        if (header == null) return () -> null;
+        List<String> keys = new ArrayList<>();
+        for (String h : header) {
+            keys.add(h.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        long[] number = {1}; // header is row 1
+        return () -> {
+            List<String> values = Csv.readRecord(in);
+            if (values == null) return null;
+            number[0]++;
+            if (values.size() != keys.size()) {
+                return new Row(number[0], Map.of(), "Expected " + keys.size() + " columns but found " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) fields.put(keys.get(i), values.get(i));
+            return new Row(number[0], fields, null);
+        };
+    }
+
+    private RowReader jsonlRows(BufferedReader in) {
+        long[] number = {0};
+        return () -> {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) return null;
+                number[0]++;
+            } while (line.isBlank());
+
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) return new Row(number[0], Map.of(), "Line is not a JSON object");
+                Map<String, String> fields = new HashMap<>();
+                node.fields().forEachRemaining(e -> {
+                    if (!e.getValue().isNull()) fields.put(e.getKey().toLowerCase(Locale.ROOT), e.getValue().asText());
+                });
+                return new Row(number[0], fields, null);
+            } catch (IOException e) {
+                return new Row(number[0], Map.of(), "Malformed JSON");
+            }
+        };
+    }
+
+    // Same rules as registration; throws with the reason the row is rejected
+    private Candidate validate(Row row, Set<String> seenEmails) {
+        if (row.error() != null) throw new IllegalArgumentException(row.error());
+
+        String name = row.get("name");
+        if (name == null) throw new IllegalArgumentException("Name is required");
+
+        String email = row.get("email");
+        if (email == null || !EMAIL.matcher(email).matches() || email.length() > 255) {
+            throw new IllegalArgumentException("Invalid email");
+        }
+        email = email.toLowerCase(Locale.ROOT);
+
+        String password = row.get("password");
+        if (password == null || password.length() < 6) {
+            throw new IllegalArgumentException("Password must be at least 6 characters");
+        }
+
+        String roleName = row.get("role");
+        User.Role role;
+        try {
+            role = roleName == null ? User.Role.ALUMNI : User.Role.valueOf(roleName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Role must be STUDENT or ALUMNI");
+        }
+        if (role == User.Role.ADMIN) throw new IllegalArgumentException("Role must be STUDENT or ALUMNI");
+
+        Integer batchYear = null;
+        String year = row.get("batchyear");
+        if (year != null) {
+            try {
+                batchYear = Integer.valueOf(year);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid batchYear");
+            }
+            if (batchYear < 1900 || batchYear > 2100) throw new IllegalArgumentException("Invalid batchYear");
+        }
+
+        for (String key : List.of("name", "institute", "degreename", "linkedinurl", "bio", "headline", "location", "skills")) {
+            String value = row.get(key);
+            if (value != null && value.length() > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException(key + " is longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+        }
+
+        if (!seenEmails.add(email)) throw new IllegalArgumentException("Duplicate email in file");
+
+        return new Candidate(row.number(), name, email, password, role, row.get("institute"), batchYear,
+                row.get("degreename"), row.get("linkedinurl"), row.get("bio"), row.get("headline"),
+                row.get("location"), row.get("skills"));
+    }
+
+    private void writeChunk(ImportJob job, BufferedWriter report, List<Candidate> all) throws IOException {
+        // degrees are a fixed list: a name the file made up is reported, not created
+        Map<String, Degree> degrees = new HashMap<>();
+        List<Candidate> chunk = new ArrayList<>(all.size());
+        for (Candidate c : all) {
+            if (c.degreeName() != null) {
+                Degree d = degrees.computeIfAbsent(c.degreeName(), name -> referenceData.findDegree(name).orElse(null));
+                if (d == null) {
+                    reject(job, report, c.row(), c.email(), "Unknown degree: " + c.degreeName());
+                    continue;
+                }
+            }
+            chunk.add(c);
+        }
+        if (chunk.isEmpty()) {
+            report.flush();
+            return;
+        }
+
+        // hash in parallel while the batches are resolved on this thread
+        List<Future<String>> hashes = new ArrayList<>(chunk.size());
+        for (Candidate c : chunk) {
+            hashes.add(hashPool.submit(() -> passwordEncoder.encode(c.password())));
+        }
+        Map<Integer, Batch> batches = new HashMap<>();
+        for (Candidate c : chunk) {
+            if (c.batchYear() != null) batches.computeIfAbsent(c.batchYear(), referenceData::getOrCreateBatch);
+        }
+        List<String> hashed = new ArrayList<>(chunk.size());
+        try {
+            for (Future<String> f : hashes) hashed.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+
+        Map<Long, String> rejectedRows = new LinkedHashMap<>();
+        int inserted = 0;
+        try {
+            inserted = tx.execute(status -> insertChunk(chunk, hashed, batches, degrees, rejectedRows));
+        } catch (DataAccessException e) {
+            logger.warn("Import {}: chunk starting at row {} failed, retrying row by row: {}",
+                    job.getId(), chunk.get(0).row(), e.getMostSpecificCause().getMessage());
+            rejectedRows.clear();
+            for (int i = 0; i < chunk.size(); i++) {
+                List<Candidate> one = List.of(chunk.get(i));
+                List<String> oneHash = List.of(hashed.get(i));
+                try {
+                    inserted += tx.execute(status -> insertChunk(one, oneHash, batches, degrees, rejectedRows));
+                } catch (DataAccessException rowError) {
+                    rejectedRows.put(chunk.get(i).row(), "Database error: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        for (Candidate c : chunk) {
+            String error = rejectedRows.get(c.row());
+            if (error != null) reject(job, report, c.row(), c.email(), error);
+        }
+        job.getImported().addAndGet(inserted);
+        report.flush();
+    }
+
+    private int insertChunk(List<Candidate> chunk, List<String> hashed, Map<Integer, Batch> batches,
+                            Map<String, Degree> degrees, Map<Long, String> rejectedRows) {
+        Set<String> existing = new HashSet<>();
+        for (String email : jdbc.queryForList("SELECT email FROM users WHERE email IN (:emails)",
+                Map.of("emails", chunk.stream().map(Candidate::email).toList()), String.class)) {
+            existing.add(email.toLowerCase(Locale.ROOT));
+        }
+
+        List<Integer> toInsert = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (existing.contains(chunk.get(i).email())) rejectedRows.put(chunk.get(i).row(), "Email already in use");
+            else toInsert.add(i);
+        }
+        if (toInsert.isEmpty()) return 0;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.getJdbcTemplate().batchUpdate(
+                "INSERT INTO users (email, password, name, role, enabled, created_at) VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE id = id",
+                toInsert, toInsert.size(), (ps, i) -> {
+                    Candidate c = chunk.get(i);
+                    ps.setString(1, c.email());
+                    ps.setString(2, hashed.get(i));
+                    ps.setString(3, c.name());
+                    ps.setString(4, c.role().name());
+                    ps.setBoolean(5, true);
+                    ps.setTimestamp(6, now);
+                });
+
+        // An email registered since the check above is left alone (no IGNORE, so any other error still
+        // fails the chunk). Rewritten batches don't report per-row counts; a row is ours if it carries
+        // the hash we generated.
+        Map<String, Long> ids = new HashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        jdbc.query("SELECT id, email, password FROM users WHERE email IN (:emails)",
+                Map.of("emails", toInsert.stream().map(i -> chunk.get(i).email()).toList()), rs -> {
+                    ids.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getLong("id"));
+                    hashes.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getString("password"));
+                });
+
+        List<Integer> created = new ArrayList<>();
+        for (int i : toInsert) {
+            Candidate c = chunk.get(i);
+            if (hashed.get(i).equals(hashes.get(c.email()))) created.add(i);
+            else rejectedRows.put(c.row(), "Email already in use");
+        }
+        if (created.isEmpty()) return 0;
+
+        jdbc.getJdbcTemplate().batchUpdate(
+                "INSERT INTO profiles (user_id, institute, batch_year, degree_name, bio, headline, location, " +
+                "linkedin_url, skills, batch_id, degree_id, user_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                created, created.size(), (ps, i) -> {
+                    Candidate c = chunk.get(i);
+                    Batch b = c.batchYear() != null ? batches.get(c.batchYear()) : null;
+                    Degree d = c.degreeName() != null ? degrees.get(c.degreeName()) : null;
+                    ps.setLong(1, ids.get(c.email()));
+                    ps.setString(2, c.institute());
+                    ps.setObject(3, c.batchYear());
+                    ps.setString(4, d != null ? d.getName() : null);
+                    ps.setString(5, c.bio());
+                    ps.setString(6, c.headline());
+                    ps.setString(7, c.location());
+                    ps.setString(8, c.linkedinUrl());
+                    ps.setString(9, c.skills());
+                    ps.setObject(10, b != null ? b.getId() : null);
+                    ps.setObject(11, d != null ? d.getId() : null);
+                    ps.setString(12, c.name());
+                });
+
+        Map<Long, String> skills = new HashMap<>();
+        for (int i : created) {
+            Candidate c = chunk.get(i);
+            if (c.skills() != null) skills.put(ids.get(c.email()), c.skills());
+        }
+        skillService.addSkillsForNewUsers(skills);
+
+        for (int i : created) {
+            Candidate c = chunk.get(i);
+            Long userId = ids.get(c.email());
+            Degree d = c.degreeName() != null ? degrees.get(c.degreeName()) : null;
+            // applied to the in-memory indexes after this chunk commits
+            eventPublisher.publishEvent(new UserDirectoryChangedEvent(null, new DirectoryEntry(
+                    userId, c.name(), c.role(), c.institute(), c.batchYear(), d != null ? d.getName() : null)));
+        }
+        return created.size();
+    }
+
+    private static void reject(ImportJob job, BufferedWriter report, long row, String email, String error)
+            throws IOException {
+        job.rejected(row, email, error);
+        report.write(row + "," + Csv.escape(email) + "," + Csv.escape(error) + "\n");
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
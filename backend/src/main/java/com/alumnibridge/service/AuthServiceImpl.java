@@ -5,6 +5,7 @@ import com.alumnibridge.entity.*;
 import com.alumnibridge.exception.ResourceNotFoundException;
 import com.alumnibridge.repository.*;
 import com.alumnibridge.security.JwtTokenProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.*;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -16,26 +17,25 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
     private final ProfileRepository profileRepository;
-    // If you have BatchRepository / DegreeRepository, inject them (optional)
-    private final BatchRepository batchRepository;
-    private final DegreeRepository degreeRepository;
+    private final ReferenceDataRegistry referenceData;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final ApplicationEventPublisher eventPublisher;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     // Update constructor to receive repositories (Spring will inject)
     public AuthServiceImpl(UserRepository ur,
                            ProfileRepository pr,
-                           BatchRepository br,        // if available; else pass null
-                           DegreeRepository dr,       // if available; else pass null
+                           ReferenceDataRegistry rd,
                            AuthenticationManager am,
-                           JwtTokenProvider jtp) {
+                           JwtTokenProvider jtp,
+                           ApplicationEventPublisher ep) {
         this.userRepository = ur;
         this.profileRepository = pr;
-        this.batchRepository = br;
-        this.degreeRepository = dr;
+        this.referenceData = rd;
         this.authenticationManager = am;
         this.tokenProvider = jtp;
+        this.eventPublisher = ep;
     }
 
     @Override
@@ -63,10 +63,7 @@ public class AuthServiceImpl implements AuthService {
         }
         if (dto.getDegreeName() != null && !dto.getDegreeName().isBlank()) {
             // Try to find degree by name
-            if (degreeRepository != null) {
-                var degree = degreeRepository.findFirstByName(dto.getDegreeName()).orElse(null);
-                p.setDegree(degree);
-            }
+            p.setDegree(referenceData.findDegree(dto.getDegreeName()).orElse(null));
             // Also store the name for reference
             p.setDegreeName(dto.getDegreeName());
         }
@@ -77,6 +74,9 @@ public class AuthServiceImpl implements AuthService {
         // save user (will cascade profile if cascade configured)
         userRepository.save(u);
 
+        // keep in-memory directory indexes in sync (applied after commit)
+        eventPublisher.publishEvent(new UserDirectoryChangedEvent(null, DirectoryEntry.of(u)));
+
         // create token
         org.springframework.security.core.userdetails.UserDetails ud =
                 new org.springframework.security.core.userdetails.User(u.getEmail(), u.getPassword(),
@@ -0,0 +1,14 @@
+package com.alumnibridge.service;
+
+import lombok.*;
+
+import java.util.List;
+
+// Published after messages or read marks are written: for each change, userId's conversation
+// with otherUserId looks different now (new message, unread count, last message)
+@Getter @AllArgsConstructor
+public class ChatChangedEvent {
+    private final List<Change> changes;
+
+    public record Change(Long userId, Long otherUserId) {}
+}
@@ -0,0 +1,180 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.ConversationSummary;
+import com.alumnibridge.repository.ConversationSummaryRepository;
+import com.alumnibridge.repository.MessageRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chat delta-sync. Every written message or read mark (from this node, or replayed from
+ * another through the ClusterEventBridge) bumps an in-memory version for the users it
+ * concerns and remembers which conversation changed, so a client that is up to date is
+ * answered without touching the database. Otherwise it gets the messages after its
+ * last-seen id and the summaries of just the conversations that changed since its version.
+ *
+ * Versions are this node's own counter, so the epoch names the node's run: a client that
+ * reaches another node, or this one after a restart, gets a full sync. Changes older than
+ * the retention window are dropped; a client behind that floor also gets a full sync.
+ */
+@Service
+public class ChatSyncService {
+
+    private final MessageRepository messageRepository;
+    private final ConversationSummaryRepository summaryRepository;
+    private final ReadReceiptService readReceipts;
+    private final MessageIdGenerator idGenerator;
+
+    // random rather than the start time, so two nodes started together never share one
+    private final long epoch = new SecureRandom().nextLong() & Long.MAX_VALUE;
+    private final AtomicLong seq = new AtomicLong();
+    private final Map<Long, UserChanges> changes = new ConcurrentHashMap<>();
+    // versions at or below the floor have been pruned; pruneMark is the next floor
+    private volatile long floor;
+    private volatile long pruneMark;
+
+    public ChatSyncService(MessageRepository mr, ConversationSummaryRepository sr, ReadReceiptService rr,
+                           MessageIdGenerator ig) {
+        this.messageRepository = mr;
+        this.summaryRepository = sr;
+        this.readReceipts = rr;
+        this.idGenerator = ig;
+    }
+
+    // A user's latest change, and the latest change per conversation partner.
+    // Only touched inside ConcurrentHashMap.compute* for the user's key.
+    private static class UserChanges {
+        long version;
+        final Map<Long, Long> byOtherUser = new HashMap<>();
+    }
+
+    // What sync() read for a user, all as of one version
+    private record Snapshot(long version, long latest, Set<Long> changedPartners) {}
+
+    // ============================
+    // VERSIONS
+    // ============================
+    @EventListener
+    public void onChatChanged(ChatChangedEvent event) {
+        for (ChatChangedEvent.Change c : event.getChanges()) {
+            // the version is taken under the key's lock, so a reader never sees it before the change
+            changes.compute(c.userId(), (k, u) -> {
+                if (u == null) u = new UserChanges();
+                long version = seq.incrementAndGet();
+                u.version = version;
+                u.byOtherUser.put(c.otherUserId(), version);
+                return u;
+            });
+        }
+    }
+
+    // Drops changes that are a whole retention window old: every entry lives one to two windows
+    @Scheduled(initialDelayString = "${app.chat.sync.retention-millis:600000}",
+               fixedDelayString = "${app.chat.sync.retention-millis:600000}")
+    public void prune() {
+        long cutoff = pruneMark;
+        pruneMark = seq.get();
+        if (cutoff == 0) return;
+        floor = cutoff;
+        for (Long userId : changes.keySet()) {
+            changes.computeIfPresent(userId, (k, u) -> {
+                if (u.version <= cutoff) return null;
+                u.byOtherUser.values().removeIf(v -> v <= cutoff);
+                return u;
+            });
+        }
+    }
+
+    private Snapshot snapshot(Long userId, long clientVersion) {
+        Snapshot read = readChanges(userId, clientVersion);
+        if (read != null) return read;
+        // No entry. Check again after reading the version: a change that got its version
+        // before that read is visible by then, and any later one is newer than the version
+        long version = seq.get();
+        read = readChanges(userId, clientVersion);
+        return read != null ? read : new Snapshot(version, 0, Set.of());
+    }
+
+    private Snapshot readChanges(Long userId, long clientVersion) {
+        Snapshot[] read = new Snapshot[1];
+        changes.computeIfPresent(userId, (k, u) -> {
+            Set<Long> changedPartners = new HashSet<>();
+            u.byOtherUser.forEach((other, v) -> {
+                if (v > clientVersion) changedPartners.add(other);
+            });
+            read[0] = new Snapshot(seq.get(), u.version, changedPartners);
+            return u;
+        });
+        return read[0];
+    }
+
+    // ============================
+    // SYNC
+    // ============================
+
+    /**
+     * What changed for userId since the client's (epoch, version), or null when nothing did.
+     * Messages are those after `after` (none without it: the first sync only sets the cursor).
+     * nextAfter trails the newest message by the id grace window, so a message committed late
+     * by another node is still picked up; clients drop the ones they already have.
+     * On a full sync every conversation is returned and `full` is set.
+     */
+    public Map<String, Object> sync(Long userId, Long clientEpoch, long clientVersion, Long after, int limit) {
+        boolean delta = clientEpoch != null && clientEpoch == epoch && clientVersion >= floor;
+
+        Snapshot snapshot = snapshot(userId, clientVersion);
+        if (delta && snapshot.latest() <= clientVersion) return null;
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        boolean hasMore = false;
+        if (after != null) {
+            List<Object[]> rows = messageRepository.findForUserAfter(userId, after, PageRequest.of(0, limit + 1));
+            hasMore = rows.size() > limit;
+            if (hasMore) rows = rows.subList(0, limit);
+            for (Object[] row : rows) messages.add(ConversationService.toMessage(row));
+        }
+
+        List<ConversationSummary> summaries;
+        if (!delta) {
+            summaries = summaryRepository.findForUser(userId);
+        } else if (snapshot.changedPartners().isEmpty()) {
+            summaries = List.of();
+        } else {
+            summaries = summaryRepository.findForUserWith(userId, snapshot.changedPartners());
+        }
+
+        long newestMessageId = after != null ? after : 0L;
+        List<Map<String, Object>> conversations = new ArrayList<>();
+        for (ConversationSummary s : summaries) {
+            newestMessageId = Math.max(newestMessageId, s.getLastMessageId());
+            Map<String, Object> conversation = new LinkedHashMap<>();
+            conversation.put("userId", s.otherUserId(userId));
+            conversation.put("lastMessageId", s.getLastMessageId());
+            conversation.put("lastMessage", s.getPreview());
+            conversation.put("lastMessageAt", s.getLastMessageAt());
+            conversation.put("unreadCount", readReceipts.unreadFor(userId, s));
+            conversations.add(conversation);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("epoch", epoch);
+        // while more messages are pending, keep the client's version so its next call syncs again
+        result.put("version", hasMore ? (delta ? clientVersion : 0L) : snapshot.version());
+        result.put("full", !delta);
+        result.put("messages", messages);
+        result.put("hasMore", hasMore);
+        long previous = after != null ? after : 0L;
+        long newest = messages.isEmpty() ? newestMessageId : (Long) messages.get(messages.size() - 1).get("id");
+        // paging through a backlog must move forward; otherwise stay behind ids still settling
+        result.put("nextAfter", hasMore ? newest : idGenerator.trailingCursor(previous, newest));
+        result.put("conversations", conversations);
+        return result;
+    }
+}
@@ -0,0 +1,158 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.entity.Skill;
+import com.alumnibridge.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps the in-memory state of every node current (ConnectionGraph, the directory and skill
+ * indexes, chat sync versions, recommendations): committed domain events are broadcast
+ * through the ClusterRelay, and events from other nodes are published here again as if they
+ * happened locally. Listeners that push to user queues skip replayed events (isReplaying()),
+ * since the origin node already relayed what it pushed.
+ *
+ * Nothing is sent while no peer is alive. Otherwise every event goes to every node: each
+ * chat write batch or read flush costs one outbox row, read back by all peers.
+ */
+@Component
+public class ClusterEventBridge {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterEventBridge.class);
+
+    private static final String CONNECTIONS = "event:connections";
+    private static final String DIRECTORY = "event:directory";
+    private static final String SKILLS = "event:skills";
+    private static final String CHAT = "event:chat";
+
+    private static final ThreadLocal<Boolean> REPLAYING = ThreadLocal.withInitial(() -> false);
+
+    private final ClusterRelay relay;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    public ClusterEventBridge(ClusterRelay cr, ApplicationEventPublisher ep, ObjectMapper om) {
+        this.relay = cr;
+        this.eventPublisher = ep;
+        this.objectMapper = om;
+        cr.onReceive(this::replay);
+    }
+
+    // Wire forms: the events themselves hold entities or have no creators Jackson can use
+    record ConnectionChange(ConnectionChangedEvent.Type type, Long requestId, Long senderId, Long receiverId) {}
+    record Entry(Long userId, String name, User.Role role, String institute, Integer batchYear, String degreeName) {}
+    record DirectoryChange(Entry previous, Entry current, long version) {}
+    record SkillRef(Long id, String name, String displayName) {}
+    record SkillsChange(Long userId, List<SkillRef> skills) {}
+
+    // Whether the event being handled on this thread came from another node
+    public static boolean isReplaying() {
+        return REPLAYING.get();
+    }
+
+    // ============================
+    // OUTGOING
+    // ============================
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        onConnectionsChanged(new ConnectionBatchChangedEvent(List.of(event)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionsChanged(ConnectionBatchChangedEvent batch) {
+        if (isReplaying()) return;
+        broadcast(CONNECTIONS, batch.getChanges().stream()
+                .map(e -> new ConnectionChange(e.getType(), e.getRequestId(), e.getSenderId(), e.getReceiverId()))
+                .toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(UserDirectoryChangedEvent event) {
+        if (isReplaying()) return;
+        broadcast(DIRECTORY, new DirectoryChange(toWire(event.getPrevious()), toWire(event.getCurrent()),
+                event.getVersion()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSkillsChanged(UserSkillsChangedEvent event) {
+        if (isReplaying()) return;
+        broadcast(SKILLS, new SkillsChange(event.getUserId(), event.getSkills().stream()
+                .map(s -> new SkillRef(s.getId(), s.getName(), s.getDisplayName()))
+                .toList()));
+    }
+
+    // Published after commit already, once per write batch or read flush
+    @EventListener
+    public void onChatChanged(ChatChangedEvent event) {
+        if (isReplaying()) return;
+        broadcast(CHAT, event.getChanges());
+    }
+
+    private void broadcast(String topic, Object payload) {
+        // a single node has nobody to tell, so don't pay for the serialization and outbox row
+        if (!relay.hasPeers()) return;
+        try {
+            relay.broadcast(topic, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not broadcast {}: {}", topic, e.getMessage());
+        }
+    }
+
+    private static Entry toWire(DirectoryEntry e) {
+        return e == null ? null : new Entry(e.getUserId(), e.getName(), e.getRole(), e.getInstitute(),
+                e.getBatchYear(), e.getDegreeName());
+    }
+
+    private static DirectoryEntry fromWire(Entry e) {
+        return e == null ? null : new DirectoryEntry(e.userId(), e.name(), e.role(), e.institute(),
+                e.batchYear(), e.degreeName());
+    }
+
+    // ============================
+    // INCOMING
+    // ============================
+    private void replay(ClusterRelay.Envelope envelope) {
+        if (!envelope.isBroadcast()) return;
+        Object event;
+        try {
+            event = switch (envelope.destination()) {
+                case CONNECTIONS -> new ConnectionBatchChangedEvent(List.of(
+                        objectMapper.readValue(envelope.payload(), ConnectionChange[].class)).stream()
+                        .map(c -> new ConnectionChangedEvent(c.type(), c.requestId(), c.senderId(), c.receiverId()))
+                        .toList());
+                case DIRECTORY -> {
+                    DirectoryChange c = objectMapper.readValue(envelope.payload(), DirectoryChange.class);
+                    yield new UserDirectoryChangedEvent(fromWire(c.previous()), fromWire(c.current()), c.version());
+                }
+                case SKILLS -> {
+                    SkillsChange c = objectMapper.readValue(envelope.payload(), SkillsChange.class);
+                    yield new UserSkillsChangedEvent(c.userId(), c.skills().stream()
+                            .map(s -> new Skill(s.id(), s.name(), s.displayName()))
+                            .toList());
+                }
+                case CHAT -> new ChatChangedEvent(List.of(
+                        objectMapper.readValue(envelope.payload(), ChatChangedEvent.Change[].class)));
+                default -> null;
+            };
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not read {} from {}: {}", envelope.destination(), envelope.originNode(), e.getMessage());
+            return;
+        }
+        if (event == null) return;
+
+        REPLAYING.set(true);
+        try {
+            eventPublisher.publishEvent(event);
+        } finally {
+            REPLAYING.set(false);
+        }
+    }
+}
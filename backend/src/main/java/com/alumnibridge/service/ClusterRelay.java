@@ -0,0 +1,42 @@
+package com.alumnibridge.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries user-queue messages (/queue/.../{userId}) between backend instances. Every node
+ * delivers to its own STOMP sessions; what is published here reaches the other nodes, which
+ * deliver it to theirs. Broadcasts carry the domain events that keep each node's in-memory
+ * indexes current (see ClusterEventBridge). The transport is picked with app.relay.transport:
+ * `outbox` (default, through the database) or `none` for a single instance.
+ */
+public interface ClusterRelay {
+
+    // user id of broadcast envelopes; their destination is the topic
+    long BROADCAST = 0L;
+
+    // A message published by another node
+    record Envelope(String originNode, Long userId, String destination, String payload, long createdAt) {
+        public boolean isBroadcast() { return userId != null && userId == BROADCAST; }
+    }
+
+    String nodeId();
+
+    String transport();
+
+    // Whether any other node is alive; nothing needs publishing when this one is alone
+    boolean hasPeers();
+
+    // payload is the JSON the local broker would send
+    void publish(Long userId, String destination, String payload);
+
+    // Sent whether or not peers are up yet, so a node that is starting misses nothing
+    void broadcast(String topic, String payload);
+
+    // Adds a handler for everything received; handlers pick the envelopes they care about
+    void onReceive(Consumer<Envelope> handler);
+
+    // Published messages not handed to the transport yet, and those turned away
+    default int pending() { return 0; }
+
+    default long dropped() { return 0; }
+}
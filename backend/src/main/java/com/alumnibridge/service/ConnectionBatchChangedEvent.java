@@ -0,0 +1,11 @@
+package com.alumnibridge.service;
+
+import lombok.*;
+
+import java.util.List;
+
+// Published once for a bulk answer to many requests, so listeners can apply every change in one pass
+@Getter @AllArgsConstructor
+public class ConnectionBatchChangedEvent {
+    private final List<ConnectionChangedEvent> changes;
+}
@@ -0,0 +1,17 @@
+package com.alumnibridge.service;
+
+import lombok.*;
+
+// Published when a connection request is sent, answered or a connection is removed.
+// senderId/receiverId are the original request's sides.
+@Getter @AllArgsConstructor
+public class ConnectionChangedEvent {
+    public enum Type {
+        REQUESTED, ACCEPTED, REJECTED, DISCONNECTED
+    }
+
+    private final Type type;
+    private final Long requestId;
+    private final Long senderId;
+    private final Long receiverId;
+}
@@ -0,0 +1,393 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.ConnectionRequest;
+import com.alumnibridge.repository.ConnectionRequestRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The connections table kept in memory: accepted and pending neighbours per user as
+ * compressed int sets, plus the request row for every pair (id, sender, status).
+ * Loaded at startup and updated from ConnectionChangedEvent after each commit, so
+ * connection lists and status checks don't touch the database.
+ */
+@Component
+public class ConnectionGraph {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionGraph.class);
+
+    private final ConnectionRequestRepository connectionRepository;
+    private final TransactionTemplate tx;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, RoaringBitmap> accepted = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> pending = new HashMap<>();
+    private final Map<Long, Edge> edges = new HashMap<>(); // pairKey(a, b) -> request row
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong acceptedVersion = new AtomicLong();
+
+    public ConnectionGraph(ConnectionRequestRepository connectionRepository, PlatformTransactionManager tm) {
+        this.connectionRepository = connectionRepository;
+        this.tx = new TransactionTemplate(tm);
+    }
+
+    // The request row between two users, as stored
+    public record Edge(Long requestId, Long senderId, Long receiverId, ConnectionRequest.Status status) {}
+
+    // User ids from start to end, empty if none was found within the limits
+    public record Path(List<Long> userIds, boolean budgetExceeded) {}
+
+    // ============================
+    // BUILD / MAINTAIN
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        migratePairKeys();
+        rebuild();
+    }
+
+    public void rebuild() {
+        List<Object[]> rows = connectionRepository.findAllEdges();
+        lock.writeLock().lock();
+        try {
+            accepted.clear();
+            pending.clear();
+            edges.clear();
+            for (Object[] row : rows) {
+                if (row[1] == null || row[2] == null) continue;
+                putLocked(new Edge((Long) row[0], (Long) row[1], (Long) row[2], (ConnectionRequest.Status) row[3]));
+            }
+            accepted.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        version.incrementAndGet();
+        acceptedVersion.incrementAndGet();
+        logger.info("Connection graph built from {} requests", rows.size());
+    }
+
+    // One-off migration for rows from before the pair key: drop duplicate pairs, then fill the
+    // key. Once every row has a key this is a single count. uk_connections_pair itself comes
+    // from the entity mapping; the old rows have NULL keys, so the schema update can add it first.
+    private void migratePairKeys() {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (connectionRepository.countMissingPairKeys() == 0) return;
+
+                Map<Long, Edge> keep = new HashMap<>();
+                List<Long> duplicates = new ArrayList<>();
+                for (Object[] row : connectionRepository.findAllEdges()) {
+                    if (row[1] == null || row[2] == null) continue;
+                    Edge edge = new Edge((Long) row[0], (Long) row[1], (Long) row[2], (ConnectionRequest.Status) row[3]);
+                    Edge kept = keep.putIfAbsent(pairKey(edge.senderId(), edge.receiverId()), edge);
+                    if (kept == null) continue;
+                    if (rank(edge) < rank(kept)) {
+                        keep.put(pairKey(edge.senderId(), edge.receiverId()), edge);
+                        duplicates.add(kept.requestId());
+                    } else {
+                        duplicates.add(edge.requestId());
+                    }
+                }
+                if (!duplicates.isEmpty()) {
+                    connectionRepository.deleteAllByIdInBatch(duplicates);
+                    logger.info("Removed {} duplicate connection rows", duplicates.size());
+                }
+                logger.info("Filled pair keys on {} connection rows", connectionRepository.backfillPairKeys());
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not migrate connection pair keys: {}", e.getMessage());
+        }
+    }
+
+    // Which row survives a duplicate pair: accepted, then pending, then rejected; oldest first within a status
+    private static int rank(Edge edge) {
+        if (edge.status() == null) return 2;
+        return switch (edge.status()) {
+            case ACCEPTED -> 0;
+            case PENDING -> 1;
+            case REJECTED -> 2;
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        onConnectionsChanged(new ConnectionBatchChangedEvent(List.of(event)));
+    }
+
+    // One write lock and one version bump for the whole batch
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionsChanged(ConnectionBatchChangedEvent batch) {
+        boolean acceptedChanged = false;
+        lock.writeLock().lock();
+        try {
+            for (ConnectionChangedEvent event : batch.getChanges()) {
+                switch (event.getType()) {
+                    case REQUESTED -> putLocked(new Edge(event.getRequestId(), event.getSenderId(),
+                            event.getReceiverId(), ConnectionRequest.Status.PENDING));
+                    case ACCEPTED -> putLocked(new Edge(event.getRequestId(), event.getSenderId(),
+                            event.getReceiverId(), ConnectionRequest.Status.ACCEPTED));
+                    case REJECTED -> putLocked(new Edge(event.getRequestId(), event.getSenderId(),
+                            event.getReceiverId(), ConnectionRequest.Status.REJECTED));
+                    case DISCONNECTED -> removeLocked(event.getSenderId(), event.getReceiverId());
+                }
+                acceptedChanged |= event.getType() == ConnectionChangedEvent.Type.ACCEPTED
+                        || event.getType() == ConnectionChangedEvent.Type.DISCONNECTED;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        version.incrementAndGet();
+        if (acceptedChanged) acceptedVersion.incrementAndGet();
+    }
+
+    private void putLocked(Edge edge) {
+        removeLocked(edge.senderId(), edge.receiverId());
+        edges.put(pairKey(edge.senderId(), edge.receiverId()), edge);
+        int a = Math.toIntExact(edge.senderId());
+        int b = Math.toIntExact(edge.receiverId());
+        if (edge.status() == ConnectionRequest.Status.ACCEPTED) link(accepted, a, b);
+        else if (edge.status() == ConnectionRequest.Status.PENDING) link(pending, a, b);
+    }
+
+    private void removeLocked(Long userA, Long userB) {
+        edges.remove(pairKey(userA, userB));
+        int a = Math.toIntExact(userA);
+        int b = Math.toIntExact(userB);
+        unlink(accepted, a, b);
+        unlink(pending, a, b);
+    }
+
+    private static void link(Map<Integer, RoaringBitmap> graph, int a, int b) {
+        graph.computeIfAbsent(a, k -> new RoaringBitmap()).add(b);
+        graph.computeIfAbsent(b, k -> new RoaringBitmap()).add(a);
+    }
+
+    private static void unlink(Map<Integer, RoaringBitmap> graph, int a, int b) {
+        RoaringBitmap ab = graph.get(a);
+        if (ab != null) {
+            ab.remove(b);
+            if (ab.isEmpty()) graph.remove(a);
+        }
+        RoaringBitmap ba = graph.get(b);
+        if (ba != null) {
+            ba.remove(a);
+            if (ba.isEmpty()) graph.remove(b);
+        }
+    }
+
+    // Order-independent key for a pair of users
+    static long pairKey(Long a, Long b) {
+        long lo = Math.min(a, b);
+        long hi = Math.max(a, b);
+        return (lo << 32) | hi;
+    }
+
+    // ============================
+    // QUERY
+    // ============================
+
+    // Bumped on every change
+    public long version() {
+        return version.get();
+    }
+
+    // Bumped only when an accepted connection is added or removed
+    public long acceptedVersion() {
+        return acceptedVersion.get();
+    }
+
+    // Accepted neighbours (copy)
+    public RoaringBitmap connectionsOf(Long userId) {
+        return copyOf(accepted, userId);
+    }
+
+    // Users with an open request to or from this user (copy)
+    public RoaringBitmap pendingOf(Long userId) {
+        return copyOf(pending, userId);
+    }
+
+    public int connectionCount(Long userId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap ids = accepted.get(Math.toIntExact(userId));
+            return ids == null ? 0 : ids.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isConnected(Long userA, Long userB) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap ids = accepted.get(Math.toIntExact(userA));
+            return ids != null && ids.contains(Math.toIntExact(userB));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // For every user two hops away: how many of this user's connections they share.
+    // Neighbours with more than maxFanout connections are skipped.
+    public Map<Integer, Integer> friendsOfFriends(Long userId, int maxFanout) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        int u = Math.toIntExact(userId);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap mine = accepted.get(u);
+            if (mine == null) return counts;
+            for (int n : mine) {
+                RoaringBitmap theirs = accepted.get(n);
+                if (theirs == null || theirs.getCardinality() > maxFanout) continue;
+                for (int m : theirs) {
+                    if (m != u && !mine.contains(m)) counts.merge(m, 1, Integer::sum);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Edge> edgeBetween(Long userA, Long userB) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(edges.get(pairKey(userA, userB)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users connected to both; the sets are sorted, so this is a merge of the two
+    public RoaringBitmap mutualConnections(Long userA, Long userB) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap a = accepted.get(Math.toIntExact(userA));
+            RoaringBitmap b = accepted.get(Math.toIntExact(userB));
+            return a == null || b == null ? new RoaringBitmap() : RoaringBitmap.and(a, b);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mutual connection count with each of `others`, without materialising the intersections
+    public Map<Long, Integer> mutualCounts(Long userId, Collection<Long> others) {
+        Map<Long, Integer> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            RoaringBitmap mine = accepted.get(Math.toIntExact(userId));
+            for (Long other : others) {
+                RoaringBitmap theirs = mine == null ? null : accepted.get(Math.toIntExact(other));
+                result.put(other, theirs == null ? 0 : RoaringBitmap.andCardinality(mine, theirs));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Shortest chain of accepted connections from one user to another, found by a BFS from
+    // both ends that always grows the cheaper frontier. Gives up after maxHops edges or once
+    // more than visitBudget users have been reached.
+    public Path shortestPath(Long fromId, Long toId, int maxHops, int visitBudget) {
+        int from = Math.toIntExact(fromId);
+        int to = Math.toIntExact(toId);
+        if (from == to) return new Path(List.of(fromId), false);
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> forwardParents = new HashMap<>();
+            Map<Integer, Integer> backwardParents = new HashMap<>();
+            forwardParents.put(from, from);
+            backwardParents.put(to, to);
+            List<Integer> forward = List.of(from);
+            List<Integer> backward = List.of(to);
+            int visited = 2;
+
+            for (int hops = 0; hops < maxHops && !forward.isEmpty() && !backward.isEmpty(); hops++) {
+                boolean fromStart = frontierCost(forward) <= frontierCost(backward);
+                Map<Integer, Integer> mine = fromStart ? forwardParents : backwardParents;
+                Map<Integer, Integer> theirs = fromStart ? backwardParents : forwardParents;
+
+                List<Integer> next = new ArrayList<>();
+                for (int u : fromStart ? forward : backward) {
+                    RoaringBitmap neighbours = accepted.get(u);
+                    if (neighbours == null) continue;
+                    for (int v : neighbours) {
+                        if (mine.containsKey(v)) continue;
+                        mine.put(v, u);
+                        if (theirs.containsKey(v)) {
+                            return new Path(joinPath(v, forwardParents, backwardParents), false);
+                        }
+                        if (++visited > visitBudget) return new Path(List.of(), true);
+                        next.add(v);
+                    }
+                }
+                if (fromStart) forward = next;
+                else backward = next;
+            }
+            return new Path(List.of(), false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long frontierCost(List<Integer> frontier) {
+        long cost = 0;
+        for (int u : frontier) {
+            RoaringBitmap neighbours = accepted.get(u);
+            if (neighbours != null) cost += neighbours.getCardinality();
+        }
+        return cost;
+    }
+
+    // start → … → meet from the forward parents, then meet → … → end from the backward ones
+    private static List<Long> joinPath(int meet, Map<Integer, Integer> forwardParents,
+                                       Map<Integer, Integer> backwardParents) {
+        LinkedList<Long> path = new LinkedList<>();
+        for (int u = meet; ; u = forwardParents.get(u)) {
+            path.addFirst((long) u);
+            if (forwardParents.get(u) == u) break;
+        }
+        for (int u = meet; backwardParents.get(u) != u; ) {
+            u = backwardParents.get(u);
+            path.addLast((long) u);
+        }
+        return new ArrayList<>(path);
+    }
+
+    // Request rows between one user and each of `others`, keyed by the other user's id
+    public Map<Long, Edge> edgesBetween(Long userId, Collection<Long> others) {
+        Map<Long, Edge> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long other : others) {
+                Edge edge = edges.get(pairKey(userId, other));
+                if (edge != null) result.put(other, edge);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap copyOf(Map<Integer, RoaringBitmap> graph, Long userId) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap ids = graph.get(Math.toIntExact(userId));
+            return ids == null ? new RoaringBitmap() : ids.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes connection lifecycle events to both users on /queue/connections/{userId}
+ * after commit, and keeps the last few per user so a client that reconnects can ask
+ * for everything after the last sequence number it saw instead of reloading its lists.
+ * Sequence numbers restart with the server; `epoch` tells clients when that happened.
+ */
+@Component
+public class ConnectionNotifier {
+
+    private final UserQueueSender userQueues;
+    private final UserDirectoryIndex directoryIndex;
+    private final int bufferPerUser;
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong seq = new AtomicLong();
+    private final Map<Long, UserEvents> recent = new ConcurrentHashMap<>();
+
+    public ConnectionNotifier(UserQueueSender uq,
+                              UserDirectoryIndex di,
+                              @Value("${app.connections.events.buffer-per-user:100}") int bufferPerUser) {
+        this.userQueues = uq;
+        this.directoryIndex = di;
+        this.bufferPerUser = bufferPerUser;
+    }
+
+    // Events for one user, oldest first; `dropped` is the newest seq that fell out of the buffer
+    private static class UserEvents {
+        final ArrayDeque<Map<String, Object>> events = new ArrayDeque<>();
+        long dropped;
+    }
+
+    // ============================
+    // PUBLISH
+    // ============================
+    // Replayed events from another node were already pushed (and relayed) there
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        if (ClusterEventBridge.isReplaying()) return;
+        publish(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionsChanged(ConnectionBatchChangedEvent batch) {
+        if (ClusterEventBridge.isReplaying()) return;
+        batch.getChanges().forEach(this::publish);
+    }
+
+    private void publish(ConnectionChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("seq", seq.incrementAndGet());
+        payload.put("type", event.getType().name());
+        payload.put("requestId", event.getRequestId());
+        payload.put("senderId", event.getSenderId());
+        payload.put("senderName", nameOf(event.getSenderId()));
+        payload.put("receiverId", event.getReceiverId());
+        payload.put("receiverName", nameOf(event.getReceiverId()));
+        payload.put("at", LocalDateTime.now().toString());
+
+        for (Long userId : List.of(event.getSenderId(), event.getReceiverId())) {
+            remember(userId, payload);
+            userQueues.sendToUser(userId, "/queue/connections/" + userId, payload);
+        }
+    }
+
+    private String nameOf(Long userId) {
+        DirectoryEntry e = directoryIndex.entryOf(userId);
+        return e != null ? e.getName() : null;
+    }
+
+    private void remember(Long userId, Map<String, Object> payload) {
+        UserEvents u = recent.computeIfAbsent(userId, k -> new UserEvents());
+        synchronized (u) {
+            u.events.addLast(payload);
+            while (u.events.size() > bufferPerUser) {
+                u.dropped = (Long) u.events.removeFirst().get("seq");
+            }
+        }
+    }
+
+    // ============================
+    // DELTA
+    // ============================
+
+    // Events for userId after `since`. resync=true means some were dropped (or the server
+    // restarted since the client's epoch), so the client should reload its lists instead.
+    public Map<String, Object> eventsSince(Long userId, long since, Long clientEpoch) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("epoch", epoch);
+        result.put("latest", seq.get());
+
+        boolean resync = clientEpoch != null && clientEpoch != epoch;
+        List<Map<String, Object>> events = new ArrayList<>();
+        UserEvents u = recent.get(userId);
+        if (u != null && !resync) {
+            synchronized (u) {
+                resync = since < u.dropped;
+                for (Map<String, Object> e : u.events) {
+                    if ((Long) e.get("seq") > since) events.add(e);
+                }
+            }
+        }
+        result.put("resync", resync);
+        result.put("events", resync ? List.of() : events);
+        return result;
+    }
+}
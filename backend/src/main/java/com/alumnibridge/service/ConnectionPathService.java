@@ -0,0 +1,90 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Degrees of separation ("you → Priya → Rahul") over accepted connections.
+ * Paths come from the in-memory ConnectionGraph; the most recently asked pairs are
+ * cached until an accepted connection is added or removed anywhere.
+ */
+@Service
+public class ConnectionPathService {
+
+    private final ConnectionGraph connectionGraph;
+    private final UserDirectoryIndex directoryIndex;
+    private final UserDtoAssembler userDtoAssembler;
+
+    private final int maxHops;
+    private final int visitBudget;
+    private final Map<Long, CachedPath> cache;
+
+    public ConnectionPathService(ConnectionGraph cg,
+                                 UserDirectoryIndex di,
+                                 UserDtoAssembler ua,
+                                 @Value("${app.connections.path.max-hops:4}") int maxHops,
+                                 @Value("${app.connections.path.visit-budget:100000}") int visitBudget,
+                                 @Value("${app.connections.path.cache-size:10000}") int cacheSize) {
+        this.connectionGraph = cg;
+        this.directoryIndex = di;
+        this.userDtoAssembler = ua;
+        this.maxHops = maxHops;
+        this.visitBudget = visitBudget;
+        // access-ordered LinkedHashMap as a small LRU
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Path stored in (lower id → higher id) order, valid for one accepted-graph version
+    private record CachedPath(long graphVersion, ConnectionGraph.Path path) {}
+
+    public Map<String, Object> pathBetween(Long fromId, Long toId) {
+        if (directoryIndex.entryOf(fromId) == null) throw new ResourceNotFoundException("User not found");
+        if (directoryIndex.entryOf(toId) == null) throw new ResourceNotFoundException("Other user not found");
+
+        ConnectionGraph.Path path = lookup(fromId, toId);
+        List<Long> ids = path.userIds();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", fromId);
+        result.put("to", toId);
+        result.put("found", !ids.isEmpty());
+        result.put("hops", ids.isEmpty() ? null : ids.size() - 1);
+        result.put("maxHops", maxHops);
+        result.put("budgetExceeded", path.budgetExceeded());
+        result.put("path", ids.isEmpty() ? List.<UserDto>of() : userDtoAssembler.loadInOrder(ids));
+        return result;
+    }
+
+    private ConnectionGraph.Path lookup(Long fromId, Long toId) {
+        long key = ConnectionGraph.pairKey(fromId, toId);
+        long version = connectionGraph.acceptedVersion();
+
+        CachedPath cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        ConnectionGraph.Path path;
+        if (cached != null && cached.graphVersion() == version) {
+            path = cached.path();
+        } else {
+            path = connectionGraph.shortestPath(Math.min(fromId, toId), Math.max(fromId, toId), maxHops, visitBudget);
+            synchronized (cache) {
+                cache.put(key, new CachedPath(version, path));
+            }
+        }
+
+        if (fromId <= toId) return path;
+        List<Long> reversed = new ArrayList<>(path.userIds());
+        Collections.reverse(reversed);
+        return new ConnectionGraph.Path(reversed, path.budgetExceeded());
+    }
+}
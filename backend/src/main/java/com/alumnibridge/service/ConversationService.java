@@ -0,0 +1,156 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.ConversationSummary;
+import com.alumnibridge.repository.ConversationSummaryRepository;
+import com.alumnibridge.repository.MessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Message history between two users, one page at a time. Pages are keyed on message id
+ * (ids grow with sentAt) over the (pair_low_id, pair_high_id, id) index, so a page costs
+ * the same however long the conversation is. Every message write also updates the
+ * conversation's row in conversation_summary, which is what the chat sidebar reads.
+ */
+@Service
+public class ConversationService {
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+
+    private final MessageRepository messageRepository;
+    private final ConversationSummaryRepository summaryRepository;
+    private final MessageWriteBehind writeBehind;
+    private final MessageIdGenerator idGenerator;
+    private final TransactionTemplate tx;
+
+    public ConversationService(MessageRepository mr, ConversationSummaryRepository sr, MessageWriteBehind wb,
+                               MessageIdGenerator ig, PlatformTransactionManager tm) {
+        this.messageRepository = mr;
+        this.summaryRepository = sr;
+        this.writeBehind = wb;
+        this.idGenerator = ig;
+        this.tx = new TransactionTemplate(tm);
+    }
+
+    // ============================
+    // MIGRATION
+    // ============================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        migratePairKeys();
+        migrateSummaries();
+    }
+
+    // Messages from before the pair key: fill it (the index itself comes from the @Table mapping)
+    private void migratePairKeys() {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (messageRepository.countMissingPairKeys() == 0) return;
+                logger.info("Filled pair keys on {} messages", messageRepository.backfillPairKeys());
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not migrate message pair keys: {}", e.getMessage());
+        }
+    }
+
+    // First start with conversation_summary: one row per existing conversation
+    private void migrateSummaries() {
+        try {
+            tx.executeWithoutResult(status -> {
+                if (summaryRepository.count() > 0) return;
+                int created = summaryRepository.backfillFromMessages();
+                if (created > 0) logger.info("Built {} conversation summaries", created);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not build conversation summaries: {}", e.getMessage());
+        }
+    }
+
+    // ============================
+    // WRITE
+    // ============================
+
+    // Accept a message: it gets its id now and is written, with its conversation summary,
+    // by the write-behind queue shortly after
+    public MessageWriteBehind.QueuedMessage send(Long senderId, Long receiverId, String content,
+                                                 boolean isEventLink, Long eventId) {
+        return writeBehind.submit(senderId, receiverId, content, isEventLink, eventId);
+    }
+
+    // ============================
+    // SUMMARIES
+    // ============================
+
+    // The user's conversations by the other user's id, newest first
+    @Transactional(readOnly = true)
+    public Map<Long, ConversationSummary> summariesFor(Long userId) {
+        Map<Long, ConversationSummary> byOtherUser = new LinkedHashMap<>();
+        for (ConversationSummary s : summaryRepository.findForUser(userId)) {
+            byOtherUser.put(s.otherUserId(userId), s);
+        }
+        return byOtherUser;
+    }
+
+    // ============================
+    // HISTORY
+    // ============================
+
+    /**
+     * Up to `limit` messages with after < id < before, in display order (oldest first).
+     * Without `after` this is the newest page below `before` (the latest page when both
+     * are null) and nextBefore points at the next older page; with only `after` it is the
+     * oldest page above it, for catching up on what arrived since.
+     */
+    public Map<String, Object> page(Long userId, Long otherUserId, Long before, Long after, int limit) {
+        long low = Math.min(userId, otherUserId);
+        long high = Math.max(userId, otherUserId);
+        long lower = after != null ? after : 0L;
+        long upper = before != null ? before : Long.MAX_VALUE;
+        boolean catchUp = after != null && before == null;
+
+        PageRequest onePastLimit = PageRequest.of(0, limit + 1);
+        List<Object[]> rows = catchUp
+                ? messageRepository.findPageOldestFirst(low, high, lower, upper, onePastLimit)
+                : messageRepository.findPageNewestFirst(low, high, lower, upper, onePastLimit);
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        List<Map<String, Object>> messages = new ArrayList<>(rows.size());
+        for (Object[] row : rows) messages.add(toMessage(row));
+        if (!catchUp) Collections.reverse(messages);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("messages", messages);
+        result.put("hasMore", hasMore);
+        result.put("nextBefore", !catchUp && hasMore ? messages.get(0).get("id") : null);
+        // newestId is what the client has seen; nextAfter trails it while newer ids may still settle
+        Long newestId = messages.isEmpty() ? null : (Long) messages.get(messages.size() - 1).get("id");
+        result.put("newestId", newestId);
+        result.put("nextAfter", newestId == null ? after
+                : catchUp && hasMore ? newestId : (Long) idGenerator.trailingCursor(lower, newestId));
+        return result;
+    }
+
+    // (id, senderId, senderName, receiverId, receiverName, content, sentAt) -> the map the chat page renders
+    static Map<String, Object> toMessage(Object[] row) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", row[0]);
+        map.put("senderId", row[1]);
+        map.put("senderName", row[2]);
+        map.put("recipientId", row[3]);
+        map.put("recipientName", row[4]);
+        map.put("content", row[5]);
+        map.put("timestamp", row[6]);
+        return map;
+    }
+}
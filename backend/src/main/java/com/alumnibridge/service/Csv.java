@@ -0,0 +1,66 @@
+package com.alumnibridge.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal RFC 4180 support: quoted fields, "" escapes and line breaks inside quotes
+final class Csv {
+
+    private Csv() {}
+
+    // Next record from the reader, or null at end of input. Blank lines are skipped.
+    static List<String> readRecord(BufferedReader in) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAny = false;
+
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\r' && !quoted) continue; // \n ends the record
+            sawAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) in.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                if (fields.isEmpty() && field.length() == 0) {
+                    sawAny = false;
+                    continue; // blank line
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!sawAny) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Field quoted only when it needs to be
+    static String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,149 @@
+package com.alumnibridge.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams users with their profile, batch and degree as CSV or NDJSON.
+ * The matching ids come from the search indexes and are read back in id order, a fixed
+ * number per primary-key IN lookup, so heap use does not grow with the number of users
+ * and a sparse filter reads only the rows it exports. Each row is written out as it is read.
+ */
+@Service
+public class DirectoryExportService {
+
+    private static final String[] COLUMNS = {
+            "id", "name", "email", "role", "enabled", "createdAt", "institute", "batchYear", "degree",
+            "headline", "location", "skills", "linkedinUrl", "githubUrl", "portfolioUrl"
+    };
+
+    private static final String SQL =
+            "SELECT u.id, u.name, u.email, u.role, u.enabled, u.created_at, p.institute, b.year AS batch_year, " +
+            "d.name AS degree, p.headline, p.location, p.skills, p.linkedin_url, p.github_url, p.portfolio_url " +
+            "FROM users u " +
+            "LEFT JOIN profiles p ON p.user_id = u.id " +
+            "LEFT JOIN batches b ON b.id = p.batch_id " +
+            "LEFT JOIN degrees d ON d.id = p.degree_id " +
+            "WHERE u.id IN (:ids) " +
+            "ORDER BY u.id";
+
+    // ids per query: bounds both the IN list and the rows the driver buffers
+    private static final int READ_CHUNK = 1000;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+
+    public DirectoryExportService(NamedParameterJdbcTemplate jdbc, ObjectMapper om) {
+        this.jdbc = jdbc;
+        this.objectMapper = om;
+    }
+
+    public static String normalizeFormat(String format) {
+        String f = format == null ? "csv" : format.trim().toLowerCase(Locale.ROOT);
+        return switch (f) {
+            case "csv" -> "csv";
+            case "ndjson", "jsonl" -> "ndjson";
+            default -> throw new IllegalArgumentException("Unsupported export format, use csv or ndjson");
+        };
+    }
+
+    // Writes every user in `ids`, in id order
+    public void export(RoaringBitmap ids, String format, OutputStream out) throws IOException {
+        if ("ndjson".equals(format)) {
+            writeNdjson(ids, out);
+        } else {
+            writeCsv(ids, out);
+        }
+    }
+
+    private void writeCsv(RoaringBitmap ids, OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        w.write(String.join(",", COLUMNS));
+        w.write('\n');
+        stream(ids, rs -> {
+            try {
+                for (int i = 1; i <= COLUMNS.length; i++) {
+                    if (i > 1) w.write(',');
+                    w.write(Csv.escape(text(rs, i)));
+                }
+                w.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        w.flush();
+    }
+
+    private void writeNdjson(RoaringBitmap ids, OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        stream(ids, rs -> {
+            try {
+                gen.writeStartObject();
+                gen.writeNumberField("id", rs.getLong(1));
+                for (int i = 2; i <= COLUMNS.length; i++) {
+                    if (i == 5) {
+                        gen.writeBooleanField(COLUMNS[i - 1], rs.getBoolean(i));
+                    } else if (i == 8) {
+                        int year = rs.getInt(i);
+                        if (rs.wasNull()) gen.writeNullField(COLUMNS[i - 1]);
+                        else gen.writeNumberField(COLUMNS[i - 1], year);
+                    } else {
+                        gen.writeStringField(COLUMNS[i - 1], text(rs, i));
+                    }
+                }
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        gen.flush();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException;
+    }
+
+    private void stream(RoaringBitmap ids, RowWriter writer) throws IOException {
+        List<Long> chunk = new ArrayList<>(READ_CHUNK);
+        try {
+            for (int id : ids) {
+                chunk.add(Integer.toUnsignedLong(id));
+                if (chunk.size() == READ_CHUNK) {
+                    read(chunk, writer);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) read(chunk, writer);
+        } catch (UncheckedIOException e) {
+            // client went away mid-download
+            throw e.getCause();
+        }
+    }
+
+    private void read(List<Long> ids, RowWriter writer) {
+        jdbc.query(SQL, Map.of("ids", ids), writer::write);
+    }
+
+    private static String text(ResultSet rs, int column) throws SQLException {
+        if (column == 5) return Boolean.toString(rs.getBoolean(column));
+        if (column == 6) {
+            Timestamp t = rs.getTimestamp(column);
+            return t != null ? t.toLocalDateTime().toString() : null;
+        }
+        return rs.getString(column);
+    }
+}
@@ -0,0 +1,225 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.repository.UserRepository;
+import com.alumnibridge.service.UserDirectoryIndex.Dimension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory facet counts (users per role, degree, institute and batch year) kept in memory.
+ * Adjusted by +1/-1 whenever a user's directory fields change and periodically reconciled
+ * against GROUP BY queries, so reads never touch the users table.
+ *
+ * Deltas arrive after their commit, so one that arrives while a reconcile runs may or may not
+ * be in its counts already. They are journaled with the user's directory_version, the counts
+ * are read in one snapshot transaction together with the journaled users' versions, and only
+ * the deltas newer than the snapshot are replayed onto the fresh counts.
+ */
+@Component
+public class DirectoryFacetCounters {
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryFacetCounters.class);
+
+    private static final int VERSION_CHUNK = 1000;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate snapshotTx;
+
+    private volatile Map<Dimension, Facet> facets = emptyFacets();
+    private final AtomicLong version = new AtomicLong();
+
+    // guards facets swaps and the journal; non-null journal means a reconcile is running
+    private final Object lock = new Object();
+    private List<Delta> journal;
+
+    private record Delta(Long userId, long version, Dimension dimension, String label, long delta) {}
+
+    public DirectoryFacetCounters(UserRepository userRepository, PlatformTransactionManager tm) {
+        this.userRepository = userRepository;
+        this.snapshotTx = new TransactionTemplate(tm);
+        // one consistent read across the counts and the versions
+        snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTx.setReadOnly(true);
+    }
+
+    // Counts for one dimension, keyed by normalized value
+    private static class Facet {
+        final Map<String, Long> counts = new ConcurrentHashMap<>();
+        final Map<String, String> labels = new ConcurrentHashMap<>();
+
+        void add(String label, long delta) {
+            String key = UserDirectoryIndex.normalize(label);
+            labels.putIfAbsent(key, label.trim());
+            // atomic per key; values that drop to zero are removed so reads stay O(values)
+            counts.compute(key, (k, v) -> {
+                long n = (v == null ? 0 : v) + delta;
+                return n > 0 ? n : null;
+            });
+        }
+    }
+
+    private static Map<Dimension, Facet> emptyFacets() {
+        Map<Dimension, Facet> m = new EnumMap<>(Dimension.class);
+        for (Dimension d : Dimension.values()) m.put(d, new Facet());
+        return m;
+    }
+
+    // ============================
+    // DELTAS
+    // ============================
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(UserDirectoryChangedEvent event) {
+        Map<Dimension, String> before = valuesOf(event.getPrevious());
+        Map<Dimension, String> after = valuesOf(event.getCurrent());
+        Long userId = event.getCurrent().getUserId();
+        boolean changed = false;
+
+        synchronized (lock) {
+            for (Dimension d : Dimension.values()) {
+                String oldValue = before.get(d);
+                String newValue = after.get(d);
+                if (Objects.equals(normalizeOrNull(oldValue), normalizeOrNull(newValue))) continue;
+                if (oldValue != null) applyLocked(new Delta(userId, event.getVersion(), d, oldValue, -1));
+                if (newValue != null) applyLocked(new Delta(userId, event.getVersion(), d, newValue, 1));
+                changed = true;
+            }
+        }
+        if (changed) version.incrementAndGet();
+    }
+
+    private void applyLocked(Delta delta) {
+        facets.get(delta.dimension()).add(delta.label(), delta.delta());
+        if (journal != null) journal.add(delta);
+    }
+
+    private static Map<Dimension, String> valuesOf(DirectoryEntry e) {
+        Map<Dimension, String> values = new EnumMap<>(Dimension.class);
+        if (e == null) return values;
+        if (e.getRole() != null) values.put(Dimension.ROLE, e.getRole().name());
+        if (e.getDegreeName() != null && !e.getDegreeName().isBlank()) values.put(Dimension.DEGREE, e.getDegreeName());
+        if (e.getInstitute() != null && !e.getInstitute().isBlank()) values.put(Dimension.INSTITUTE, e.getInstitute());
+        if (e.getBatchYear() != null) values.put(Dimension.BATCH_YEAR, e.getBatchYear().toString());
+        return values;
+    }
+
+    private static String normalizeOrNull(String value) {
+        return value == null ? null : UserDirectoryIndex.normalize(value);
+    }
+
+    // ============================
+    // RECONCILE
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.directory.facets.reconcile-millis:600000}",
+               fixedDelayString = "${app.directory.facets.reconcile-millis:600000}")
+    public void reconcile() {
+        synchronized (lock) {
+            journal = new ArrayList<>();
+        }
+        try {
+            snapshotTx.executeWithoutResult(status -> {
+                Map<Dimension, Facet> fresh = emptyFacets();
+                load(fresh.get(Dimension.ROLE), userRepository.countByRoleGrouped());
+                load(fresh.get(Dimension.DEGREE), userRepository.countByDegreeGrouped());
+                load(fresh.get(Dimension.INSTITUTE), userRepository.countByInstituteGrouped());
+                load(fresh.get(Dimension.BATCH_YEAR), userRepository.countByBatchYearGrouped());
+
+                // version of each journaled user as the snapshot saw it, -1 when it didn't see the user
+                Map<Long, Long> seen = new HashMap<>();
+                while (true) {
+                    List<Long> unseen;
+                    synchronized (lock) {
+                        unseen = journal.stream().map(Delta::userId).distinct()
+                                .filter(id -> !seen.containsKey(id)).toList();
+                        if (unseen.isEmpty()) {
+                            swapLocked(fresh, seen);
+                            return;
+                        }
+                    }
+                    for (int i = 0; i < unseen.size(); i += VERSION_CHUNK) {
+                        List<Long> ids = unseen.subList(i, Math.min(i + VERSION_CHUNK, unseen.size()));
+                        for (Long id : ids) seen.put(id, -1L);
+                        for (Object[] row : userRepository.findDirectoryVersions(ids)) {
+                            seen.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+                        }
+                    }
+                }
+            });
+        } finally {
+            synchronized (lock) {
+                journal = null;
+            }
+        }
+    }
+
+    private void swapLocked(Map<Dimension, Facet> fresh, Map<Long, Long> seen) {
+        for (Delta delta : journal) {
+            if (delta.version() > seen.get(delta.userId())) {
+                fresh.get(delta.dimension()).add(delta.label(), delta.delta());
+            }
+        }
+        if (!sameCounts(facets, fresh)) {
+            logger.info("Directory facet counters reconciled against the database");
+            version.incrementAndGet();
+        }
+        facets = fresh;
+    }
+
+    private static void load(Facet facet, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[0] == null) continue;
+            String label = row[0].toString();
+            if (label.isBlank()) continue;
+            facet.add(label, ((Number) row[1]).longValue());
+        }
+    }
+
+    private static boolean sameCounts(Map<Dimension, Facet> a, Map<Dimension, Facet> b) {
+        for (Dimension d : Dimension.values()) {
+            if (!a.get(d).counts.equals(b.get(d).counts)) return false;
+        }
+        return true;
+    }
+
+    // ============================
+    // READ
+    // ============================
+
+    // Bumped whenever any count changes
+    public long version() {
+        return version.get();
+    }
+
+    public long count(Dimension dimension, String value) {
+        return facets.get(dimension).counts.getOrDefault(UserDirectoryIndex.normalize(value), 0L);
+    }
+
+    // { role: {ALUMNI: 120, ...}, degree: {...}, institute: {...}, batchYear: {...} }
+    public Map<String, Map<String, Long>> snapshot() {
+        Map<Dimension, Facet> current = facets;
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        result.put("role", toMap(current.get(Dimension.ROLE)));
+        result.put("degree", toMap(current.get(Dimension.DEGREE)));
+        result.put("institute", toMap(current.get(Dimension.INSTITUTE)));
+        result.put("batchYear", toMap(current.get(Dimension.BATCH_YEAR)));
+        return result;
+    }
+
+    private static Map<String, Long> toMap(Facet facet) {
+        Map<String, Long> m = new TreeMap<>();
+        facet.counts.forEach((key, count) -> m.put(facet.labels.getOrDefault(key, key), count));
+        return m;
+    }
+}
@@ -0,0 +1,92 @@
+package com.alumnibridge.service;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one bulk import, polled by the admin UI while the job runs
+@Getter
+public class ImportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Errors kept inline in the status response; the full list is in the report file
+    private static final int MAX_INLINE_ERRORS = 50;
+
+    private final String id;
+    private final String fileName;
+    private final String format;
+    private final long totalBytes;
+    private final Path source;
+    private final Path errorReport;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failure;
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<Map<String, Object>> firstErrors = Collections.synchronizedList(new ArrayList<>());
+
+    public ImportJob(String id, String fileName, String format, long totalBytes, Path source, Path errorReport) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.totalBytes = totalBytes;
+        this.source = source;
+        this.errorReport = errorReport;
+    }
+
+    void running() {
+        status = Status.RUNNING;
+    }
+
+    void finished(String failure) {
+        this.failure = failure;
+        this.status = failure == null ? Status.COMPLETED : Status.FAILED;
+        this.finishedAt = LocalDateTime.now();
+    }
+
+    void rejected(long row, String email, String error) {
+        rejected.incrementAndGet();
+        if (firstErrors.size() < MAX_INLINE_ERRORS) {
+            Map<String, Object> e = new LinkedHashMap<>();
+            e.put("row", row);
+            e.put("email", email != null ? email : "");
+            e.put("error", error);
+            firstErrors.add(e);
+        }
+    }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", id);
+        m.put("fileName", fileName);
+        m.put("format", format);
+        m.put("status", status.name());
+        m.put("rowsRead", rowsRead.get());
+        m.put("imported", imported.get());
+        m.put("rejected", rejected.get());
+        m.put("percent", totalBytes > 0 ? Math.min(100, bytesRead.get() * 100 / totalBytes) : (isDone() ? 100 : 0));
+        m.put("createdAt", createdAt.toString());
+        m.put("finishedAt", finishedAt != null ? finishedAt.toString() : "");
+        if (failure != null) m.put("failure", failure);
+        synchronized (firstErrors) {
+            m.put("errors", new ArrayList<>(firstErrors));
+        }
+        return m;
+    }
+}
@@ -0,0 +1,39 @@
+package com.alumnibridge.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+// app.relay.transport=none: a single instance, nothing leaves the node
+@Component
+@ConditionalOnProperty(name = "app.relay.transport", havingValue = "none")
+public class LocalOnlyClusterRelay implements ClusterRelay {
+
+    @Override
+    public String nodeId() {
+        return "local";
+    }
+
+    @Override
+    public String transport() {
+        return "none";
+    }
+
+    @Override
+    public boolean hasPeers() {
+        return false;
+    }
+
+    @Override
+    public void publish(Long userId, String destination, String payload) {
+    }
+
+    @Override
+    public void broadcast(String topic, String payload) {
+    }
+
+    @Override
+    public void onReceive(Consumer<Envelope> handler) {
+    }
+}
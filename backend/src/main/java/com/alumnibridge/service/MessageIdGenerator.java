@@ -0,0 +1,160 @@
+package com.alumnibridge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Message ids that follow time across nodes: milliseconds since 2024-01-01, then a node
+ * slot, then a per-millisecond sequence. Slots are leased from id_node_slots so two running
+ * nodes never share one. The lease is claimed at startup and renewed in the background, so
+ * next() never touches the database; a node stops issuing ids once its lease runs out (a
+ * database outage shorter than the lease goes unnoticed). Ids stay below 2^53, so browsers
+ * read them exactly.
+ *
+ * Ids are assigned before the write commits, so across nodes a smaller id can still
+ * appear shortly after a larger one. Forward cursors ("messages after id X") therefore trail
+ * by a grace window: settledBelow() is the id under which nothing new is expected.
+ */
+@Component
+public class MessageIdGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(MessageIdGenerator.class);
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int SLOT_BITS = 4;
+    private static final int SEQUENCE_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIME_SHIFT = SLOT_BITS + SEQUENCE_BITS;
+
+    private static final String CLAIM =
+            "UPDATE id_node_slots SET owner = ?, lease_until = ? WHERE slot = ? AND (lease_until < ? OR owner = ?)";
+    private static final String RENEW =
+            "UPDATE id_node_slots SET lease_until = ? WHERE slot = ? AND owner = ?";
+
+    private final JdbcTemplate jdbc;
+    private final long leaseMillis;
+    private final long graceMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    // written by the lease job only, read by next()
+    private volatile int slot = -1;
+    private volatile long leaseUntil;
+
+    // guarded by this
+    private long lastMillis;
+    private long sequence;
+
+    public MessageIdGenerator(JdbcTemplate jdbc,
+                              @Value("${app.chat.ids.lease-millis:30000}") long leaseMillis,
+                              @Value("${app.chat.ids.cursor-grace-millis:5000}") long graceMillis) {
+        this.jdbc = jdbc;
+        this.leaseMillis = Math.max(1000, leaseMillis);
+        this.graceMillis = Math.max(0, graceMillis);
+    }
+
+    // Next id; IllegalStateException when this node holds no live lease
+    public synchronized long next() {
+        long now = System.currentTimeMillis();
+        int slot = this.slot;
+        if (slot < 0 || now >= leaseUntil) throw new IllegalStateException("Chat is busy, please try again");
+
+        // never go backwards, even if the clock does; borrow the next millisecond when one fills up
+        long millis = Math.max(now, lastMillis);
+        if (millis == lastMillis) {
+            if (++sequence > MAX_SEQUENCE) {
+                millis++;
+                sequence = 0;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return ((millis - EPOCH_MILLIS) << TIME_SHIFT) | ((long) slot << SEQUENCE_BITS) | sequence;
+    }
+
+    // The smallest id that can be issued at epochMillis
+    public static long firstIdAt(long epochMillis) {
+        return Math.max(0, epochMillis - EPOCH_MILLIS) << TIME_SHIFT;
+    }
+
+    // Ids below this were issued more than the grace window ago and are written by now
+    public long settledBelow() {
+        return firstIdAt(System.currentTimeMillis() - graceMillis);
+    }
+
+    // Where a forward cursor may move after reading up to `newest`: never past ids still
+    // settling, never back behind where it was
+    public long trailingCursor(long previous, long newest) {
+        return Math.max(previous, Math.min(newest, settledBelow() - 1));
+    }
+
+    // ============================
+    // LEASE
+    // ============================
+
+    // Before anything else starts on ApplicationReadyEvent, so chat can send as soon as it is up
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        seedSlots();
+        renewLease();
+    }
+
+    // Keeps the slot well before it lapses; losing it (or never getting one) claims another
+    @Scheduled(initialDelayString = "${app.chat.ids.renew-millis:10000}",
+               fixedDelayString = "${app.chat.ids.renew-millis:10000}")
+    public void renewLease() {
+        long now = System.currentTimeMillis();
+        try {
+            int current = slot;
+            if (current >= 0 && jdbc.update(RENEW, now + leaseMillis, current, owner) == 1) {
+                leaseUntil = now + leaseMillis;
+                return;
+            }
+            if (current >= 0) logger.warn("Lost id slot {}, claiming another", current);
+            claim(now);
+        } catch (RuntimeException e) {
+            // ids keep flowing until the current lease runs out
+            logger.warn("Could not renew message id slot {}: {}", slot, e.getMessage());
+        }
+    }
+
+    private void claim(long now) {
+        for (int s = 0; s < SLOTS; s++) {
+            if (jdbc.update(CLAIM, owner, now + leaseMillis, s, now, owner) == 1) {
+                leaseUntil = now + leaseMillis;
+                slot = s;
+                logger.info("Leased message id slot {}", s);
+                return;
+            }
+        }
+        slot = -1;
+        logger.error("All {} message id slots are leased; chat sends fail until one frees up", SLOTS);
+    }
+
+    // One row per slot; another node creating the same rows concurrently is fine
+    private void seedSlots() {
+        Set<Integer> existing = new HashSet<>(jdbc.queryForList("SELECT slot FROM id_node_slots", Integer.class));
+        for (int s = 0; s < SLOTS; s++) {
+            if (existing.contains(s)) continue;
+            try {
+                jdbc.update("INSERT INTO id_node_slots (slot, owner, lease_until) VALUES (?, NULL, 0)", s);
+            } catch (DataIntegrityViolationException e) {
+                // created by another node meanwhile
+            }
+        }
+    }
+}
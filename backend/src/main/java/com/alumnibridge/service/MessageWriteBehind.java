@@ -0,0 +1,307 @@
+package com.alumnibridge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat messages are accepted in memory and written behind: the id comes from the
+ * MessageIdGenerator, the caller delivers the message straight away, and one writer thread group-commits
+ * queued messages (JDBC batch inserts plus their conversation_summary upserts, one
+ * transaction per batch). The queue is bounded: when it is full, senders wait up to
+ * offer-timeout and are then turned away. The writer runs with the application context:
+ * it starts once the context is refreshed and, on shutdown, drains the queue before the
+ * datasource goes away.
+ */
+@Component
+public class MessageWriteBehind implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehind.class);
+
+    // longest preview kept in conversation_summary
+    private static final int PREVIEW_LENGTH = 200;
+    // messages.content is VARCHAR(2000)
+    public static final int MAX_CONTENT_LENGTH = 2000;
+    private static final long RETRY_MILLIS = 1000;
+
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO messages (id, sender_id, receiver_id, pair_low_id, pair_high_id, content, is_event_link, event_id, sent_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // The latest-message fields only move forward (batches may carry ids out of order);
+    // last_message_id is assigned last because MySQL evaluates the assignments left to right,
+    // so every CASE compares against the stored value. Covered by MessageWriteBehindTests.
+    // Messages at or below the receiver's read mark were already read when they were delivered.
+    private static final String RECORD_SUMMARY =
+            "INSERT INTO conversation_summary " +
+            "(pair_low_id, pair_high_id, last_message_id, last_sender_id, preview, last_message_at, " +
+            "read_low_id, read_high_id, unread_low, unread_high) VALUES (?, ?, ?, ?, ?, ?, 0, 0, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "last_sender_id = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(last_sender_id) ELSE last_sender_id END, " +
+            "preview = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(preview) ELSE preview END, " +
+            "last_message_at = CASE WHEN VALUES(last_message_id) > last_message_id THEN VALUES(last_message_at) ELSE last_message_at END, " +
+            "unread_low = unread_low + CASE WHEN VALUES(last_message_id) > read_low_id THEN VALUES(unread_low) ELSE 0 END, " +
+            "unread_high = unread_high + CASE WHEN VALUES(last_message_id) > read_high_id THEN VALUES(unread_high) ELSE 0 END, " +
+            "last_message_id = GREATEST(last_message_id, VALUES(last_message_id))";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final MessageIdGenerator idGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int flushSize;
+    private final long flushMillis;
+    private final long offerTimeoutMillis;
+    private final long drainTimeoutMillis;
+
+    private final BlockingQueue<QueuedMessage> queue;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public MessageWriteBehind(JdbcTemplate jdbc,
+                              PlatformTransactionManager tm,
+                              MessageIdGenerator ig,
+                              ApplicationEventPublisher ep,
+                              @Value("${app.chat.write-behind.flush-size:500}") int flushSize,
+                              @Value("${app.chat.write-behind.flush-millis:50}") long flushMillis,
+                              @Value("${app.chat.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.chat.write-behind.offer-timeout-millis:1000}") long offerTimeoutMillis,
+                              @Value("${app.chat.write-behind.drain-timeout-millis:30000}") long drainTimeoutMillis) {
+        this.jdbc = jdbc;
+        this.tx = new TransactionTemplate(tm);
+        this.idGenerator = ig;
+        this.eventPublisher = ep;
+        this.flushSize = Math.max(1, flushSize);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    // A message accepted but possibly not written yet
+    public record QueuedMessage(long id, Long senderId, Long receiverId, String content,
+                                boolean isEventLink, Long eventId, LocalDateTime sentAt) {
+        public long pairLowId() { return Math.min(senderId, receiverId); }
+        public long pairHighId() { return Math.max(senderId, receiverId); }
+    }
+
+    // ============================
+    // ACCEPT
+    // ============================
+
+    // Assign an id and queue the message. IllegalArgumentException when the message could never
+    // be written, IllegalStateException when the queue stays full
+    public QueuedMessage submit(Long senderId, Long receiverId, String content, boolean isEventLink, Long eventId) {
+        if (senderId == null || receiverId == null) throw new IllegalArgumentException("Sender and recipient are required");
+        if (content == null || content.isBlank()) throw new IllegalArgumentException("Message cannot be empty");
+        if (content.length() > MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("Message is too long (max " + MAX_CONTENT_LENGTH + " characters)");
+        }
+        if (!running) throw new IllegalStateException("Chat is unavailable, please try again");
+
+        // ids enter the queue in order, so this node's batches commit in id order
+        synchronized (queue) {
+            QueuedMessage m = new QueuedMessage(idGenerator.next(), senderId, receiverId,
+                    content, isEventLink, eventId, LocalDateTime.now());
+            try {
+                if (!queue.offer(m, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Chat is busy, please try again");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Chat is busy, please try again");
+            }
+            return m;
+        }
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    // ============================
+    // WRITE
+    // ============================
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<QueuedMessage> batch = nextBatch();
+                if (!batch.isEmpty()) write(batch);
+            } catch (InterruptedException e) {
+                if (!running) continue;
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Up to flushSize messages: whatever is queued, topped up until flushMillis after the first
+    private List<QueuedMessage> nextBatch() throws InterruptedException {
+        List<QueuedMessage> batch = new ArrayList<>();
+        QueuedMessage first = queue.poll(flushMillis, TimeUnit.MILLISECONDS);
+        if (first == null) return batch;
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long wait = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || wait <= 0) break;
+            QueuedMessage next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    // Retries while the database is unavailable. A batch the database rejects outright is
+    // written message by message so one bad row can't hold up the ones behind it; that row is
+    // dropped. Otherwise messages are only dropped when a drain runs out of time.
+    void write(List<QueuedMessage> batch) throws InterruptedException {
+        try {
+            writeRetrying(batch);
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                drop(batch.get(0), e);
+                return;
+            }
+            logger.warn("Chat batch of {} was rejected, writing one by one: {}", batch.size(), e.getMessage());
+            for (QueuedMessage m : batch) {
+                try {
+                    writeRetrying(List.of(m));
+                } catch (DataIntegrityViolationException rejected) {
+                    drop(m, rejected);
+                }
+            }
+        }
+    }
+
+    private void writeRetrying(List<QueuedMessage> batch) throws InterruptedException {
+        long giveUpAt = 0;
+        while (true) {
+            try {
+                tx.executeWithoutResult(status -> {
+                    insertMessages(batch);
+                    recordSummaries(batch);
+                });
+                publishWritten(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                logger.warn("Could not write {} chat messages, retrying: {}", batch.size(), e.getMessage());
+            }
+            if (!running) {
+                if (giveUpAt == 0) giveUpAt = System.currentTimeMillis() + drainTimeoutMillis;
+                if (System.currentTimeMillis() > giveUpAt) {
+                    logger.error("Dropped {} unwritten chat messages at shutdown (ids {}..{})",
+                            batch.size(), batch.get(0).id(), batch.get(batch.size() - 1).id());
+                    return;
+                }
+            }
+            Thread.sleep(RETRY_MILLIS);
+        }
+    }
+
+    // Logged in full so the message can be recovered by hand
+    private void drop(QueuedMessage m, RuntimeException cause) {
+        logger.error("Dropped chat message {} from {} to {} at {} ({}): {}", m.id(), m.senderId(), m.receiverId(),
+                m.sentAt(), cause.getMessage(), m.content());
+    }
+
+    private void insertMessages(List<QueuedMessage> batch) {
+        jdbc.batchUpdate(INSERT_MESSAGE, batch, batch.size(), (ps, m) -> {
+            ps.setLong(1, m.id());
+            ps.setLong(2, m.senderId());
+            ps.setLong(3, m.receiverId());
+            ps.setLong(4, m.pairLowId());
+            ps.setLong(5, m.pairHighId());
+            ps.setString(6, m.content());
+            ps.setBoolean(7, m.isEventLink());
+            if (m.eventId() != null) ps.setLong(8, m.eventId());
+            else ps.setNull(8, Types.BIGINT);
+            ps.setTimestamp(9, Timestamp.valueOf(m.sentAt()));
+        });
+    }
+
+    private void recordSummaries(List<QueuedMessage> batch) {
+        jdbc.batchUpdate(RECORD_SUMMARY, batch, batch.size(), (ps, m) -> {
+            boolean receiverIsLow = m.receiverId() == m.pairLowId();
+            ps.setLong(1, m.pairLowId());
+            ps.setLong(2, m.pairHighId());
+            ps.setLong(3, m.id());
+            ps.setLong(4, m.senderId());
+            ps.setString(5, preview(m.content()));
+            ps.setTimestamp(6, Timestamp.valueOf(m.sentAt()));
+            ps.setInt(7, receiverIsLow ? 1 : 0);
+            ps.setInt(8, receiverIsLow ? 0 : 1);
+        });
+    }
+
+    // Both sides of each conversation changed, now that the batch is visible to readers
+    private void publishWritten(List<QueuedMessage> batch) {
+        List<ChatChangedEvent.Change> changes = new ArrayList<>(batch.size() * 2);
+        for (QueuedMessage m : batch) {
+            changes.add(new ChatChangedEvent.Change(m.senderId(), m.receiverId()));
+            changes.add(new ChatChangedEvent.Change(m.receiverId(), m.senderId()));
+        }
+        try {
+            eventPublisher.publishEvent(new ChatChangedEvent(changes));
+        } catch (RuntimeException e) {
+            logger.warn("Chat change listener failed: {}", e.getMessage());
+        }
+    }
+
+    private static String preview(String content) {
+        if (content == null || content.length() <= PREVIEW_LENGTH) return content;
+        return content.substring(0, PREVIEW_LENGTH);
+    }
+
+    // ============================
+    // LIFECYCLE
+    // ============================
+
+    // Default phase: started after, and stopped before, everything the writer depends on
+    @Override
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        writer = new Thread(this::run, "chat-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            writer.join(drainTimeoutMillis + RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive() || !queue.isEmpty()) {
+            logger.error("Chat writer stopped with {} messages still queued", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
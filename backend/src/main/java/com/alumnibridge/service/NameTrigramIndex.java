@@ -0,0 +1,226 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.repository.UserRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over User.name for ranked, typo tolerant name search.
+ * A name matches when it holds at least the threshold share of the query's trigrams
+ * (pg_trgm word_similarity style, every word padded with two leading blanks and one
+ * trailing blank), so short or partial queries like "Sha" still match "Shreya Sharma".
+ * Matches are ranked by the mean of that coverage and the Dice coefficient, so of two
+ * names covering the query equally the one closer in length comes first ("Al" before
+ * "Alexandra Albertson" for "al").
+ * Candidates are only taken from the rarest query trigrams (prefix filtering), so common
+ * trigrams never force a scan over most of the users. Queries under three characters have
+ * too few trigrams for that and are answered as word prefixes instead.
+ */
+@Component
+public class NameTrigramIndex {
+    private static final Logger logger = LoggerFactory.getLogger(NameTrigramIndex.class);
+
+    // normalized characters a query needs before it is matched by trigrams rather than as a prefix
+    private static final int MIN_TRIGRAM_QUERY = 3;
+    // heap order for top-k: lowest score first, then highest id
+    private static final Comparator<Match> WORST_FIRST =
+            Comparator.comparingDouble(Match::score).thenComparing(Match::userId, Comparator.reverseOrder());
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Integer, String> names = new HashMap<>();      // user id -> normalized name
+    private final Map<Integer, Integer> gramCounts = new HashMap<>(); // user id -> trigrams in the name
+
+    public NameTrigramIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public record Match(Long userId, double score) {}
+
+    // ============================
+    // BUILD / MAINTAIN
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DirectoryEntry> rows = userRepository.findDirectoryEntries();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            names.clear();
+            gramCounts.clear();
+            for (DirectoryEntry e : rows) {
+                addLocked(Math.toIntExact(e.getUserId()), e.getName());
+            }
+            postings.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Name trigram index built for {} users ({} trigrams)", rows.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(UserDirectoryChangedEvent event) {
+        int id = Math.toIntExact(event.getCurrent().getUserId());
+        String name = normalize(event.getCurrent().getName());
+        lock.writeLock().lock();
+        try {
+            if (name.equals(names.get(id))) return; // not a rename
+            removeLocked(id);
+            addLocked(id, event.getCurrent().getName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(int id, String rawName) {
+        String name = normalize(rawName);
+        Set<String> grams = trigrams(name);
+        names.put(id, name);
+        gramCounts.put(id, grams.size());
+        for (String g : grams) {
+            postings.computeIfAbsent(g, k -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private void removeLocked(int id) {
+        String old = names.remove(id);
+        gramCounts.remove(id);
+        if (old == null) return;
+        for (String g : trigrams(old)) {
+            RoaringBitmap ids = postings.get(g);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) postings.remove(g);
+            }
+        }
+    }
+
+    // ============================
+    // QUERY
+    // ============================
+
+    /**
+     * Best matches for the query, best ranked first.
+     * @param threshold minimum share of query trigrams in the name, in (0, 1]
+     * @param limit     top-k
+     * @param within    optional restriction (e.g. structured filters), null for everyone
+     */
+    public List<Match> search(String query, double threshold, int limit, RoaringBitmap within) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) return List.of();
+        if (normalized.replace(" ", "").length() < MIN_TRIGRAM_QUERY) {
+            return searchPrefix(normalized, limit, within);
+        }
+
+        List<String> queryGrams = new ArrayList<>(trigrams(normalized));
+
+        // a match shares at least t * |Q| trigrams, so it contains at least one of the
+        // |Q| - minShared + 1 rarest query trigrams
+        int minShared = Math.max(1, (int) Math.ceil(threshold * queryGrams.size()));
+
+        PriorityQueue<Match> top = new PriorityQueue<>(WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> lists = new ArrayList<>(queryGrams.size());
+            for (String g : queryGrams) {
+                lists.add(postings.getOrDefault(g, new RoaringBitmap()));
+            }
+            lists.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+
+            RoaringBitmap candidates = new RoaringBitmap();
+            for (int i = 0; i <= lists.size() - minShared; i++) {
+                candidates.or(lists.get(i));
+            }
+            if (within != null) candidates.and(within);
+
+            for (int id : candidates) {
+                int shared = 0;
+                for (RoaringBitmap ids : lists) {
+                    if (ids.contains(id)) shared++;
+                }
+                if (shared < minShared || (double) shared / queryGrams.size() < threshold) continue;
+
+                offer(top, limit, new Match((long) id, score(shared, queryGrams.size(), gramCounts.get(id))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return bestFirst(top);
+    }
+
+    // One or two letters: names with a word starting with each query word, ranked the same way
+    private List<Match> searchPrefix(String normalized, int limit, RoaringBitmap within) {
+        Set<String> queryGrams = trigrams(normalized);
+        PriorityQueue<Match> top = new PriorityQueue<>(WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = null;
+            for (String word : normalized.split(" ")) {
+                // "  a" for one letter, " al" for two: the trigram that starts the word
+                RoaringBitmap ids = postings.get((word.length() == 1 ? "  " : " ") + word);
+                if (ids == null) return List.of();
+                candidates = candidates == null ? ids.clone() : RoaringBitmap.and(candidates, ids);
+            }
+            if (within != null) candidates.and(within);
+
+            for (int id : candidates) {
+                int shared = 0;
+                for (String g : queryGrams) {
+                    RoaringBitmap ids = postings.get(g);
+                    if (ids != null && ids.contains(id)) shared++;
+                }
+                offer(top, limit, new Match((long) id, score(shared, queryGrams.size(), gramCounts.get(id))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return bestFirst(top);
+    }
+
+    // Mean of coverage (shared / |Q|) and Dice (2 * shared / (|Q| + |N|))
+    static double score(int shared, int queryGrams, int nameGrams) {
+        double coverage = (double) shared / queryGrams;
+        double dice = 2.0 * shared / (queryGrams + nameGrams);
+        return (coverage + dice) / 2;
+    }
+
+    private static void offer(PriorityQueue<Match> top, int limit, Match m) {
+        top.offer(m);
+        if (top.size() > limit) top.poll();
+    }
+
+    private static List<Match> bestFirst(PriorityQueue<Match> top) {
+        List<Match> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingDouble(Match::score).reversed().thenComparing(Match::userId));
+        return result;
+    }
+
+    static String normalize(String name) {
+        if (name == null) return "";
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        if (normalized.isEmpty()) return grams;
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+}
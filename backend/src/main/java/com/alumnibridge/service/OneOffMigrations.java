@@ -0,0 +1,46 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.AppliedMigration;
+import com.alumnibridge.repository.AppliedMigrationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data migrations that run once per database, recorded in applied_migrations.
+ * The marker is written first and commits together with the migration, so a node starting
+ * alongside waits on it and then skips; a migration that fails leaves no marker and is
+ * retried on the next start.
+ */
+@Component
+public class OneOffMigrations {
+    private static final Logger logger = LoggerFactory.getLogger(OneOffMigrations.class);
+
+    private final AppliedMigrationRepository migrationRepository;
+    private final TransactionTemplate newTx;
+
+    public OneOffMigrations(AppliedMigrationRepository mr, PlatformTransactionManager tm) {
+        this.migrationRepository = mr;
+        this.newTx = new TransactionTemplate(tm);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void runOnce(String name, Runnable migration) {
+        if (migrationRepository.existsById(name)) return;
+        try {
+            newTx.executeWithoutResult(status -> {
+                migrationRepository.saveAndFlush(new AppliedMigration(name, LocalDateTime.now()));
+                migration.run();
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!migrationRepository.existsById(name)) throw e;
+            logger.info("Migration {} already applied by another node", name);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.alumnibridge.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Default relay: nodes share the database, so a published message is a row in relay_outbox
+ * and every node polls for rows from the others. Publishing only queues in memory; one
+ * relay thread batch-inserts the queue, polls, heartbeats into relay_nodes and expires old
+ * rows. Rows commit out of id order across nodes, so ids the poll stepped over (still being
+ * inserted elsewhere) are remembered as holes and looked up again for a grace window. Polls
+ * read ids and origins first and fetch payloads only for rows this node has not seen.
+ */
+@Component
+@ConditionalOnProperty(name = "app.relay.transport", havingValue = "outbox", matchIfMissing = true)
+public class OutboxClusterRelay implements ClusterRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxClusterRelay.class);
+
+    private static final String INSERT =
+            "INSERT INTO relay_outbox (origin_node, user_id, destination, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String POLL_NEW =
+            "SELECT id, origin_node FROM relay_outbox WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String POLL_IDS =
+            "SELECT id, origin_node FROM relay_outbox WHERE id IN (%s)";
+    private static final String FETCH =
+            "SELECT id, origin_node, user_id, destination, payload, created_at FROM relay_outbox WHERE id IN (%s) ORDER BY id";
+    // ids per IN (...) list, and most holes tracked at once
+    private static final int CHUNK = 500;
+    private static final int MAX_HOLES = 10000;
+    private static final String HEARTBEAT =
+            "INSERT INTO relay_nodes (node_id, heartbeat_at) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE heartbeat_at = VALUES(heartbeat_at)";
+    private static final String COUNT_PEERS =
+            "SELECT COUNT(*) FROM relay_nodes WHERE node_id <> ? AND heartbeat_at >= ?";
+
+    // Published but not inserted yet
+    private record Outgoing(Long userId, String destination, String payload, long createdAt) {}
+
+    private final JdbcTemplate jdbc;
+    private final String nodeId;
+    private final long heartbeatMillis;
+    private final long pollMillis;
+    private final long flushMillis;
+    private final int batchSize;
+    private final long graceMillis;
+    private final long retentionMillis;
+
+    private final BlockingQueue<Outgoing> outgoing;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ScheduledExecutorService executor;
+    private final List<Consumer<Envelope>> handlers = new CopyOnWriteArrayList<>();
+    private volatile int peers;
+    private volatile boolean polling;
+
+    // Relay thread only: highest id read, ids below it not seen yet (with when they were
+    // noticed), and a batch whose insert failed, retried before anything newer
+    private long maxSeen;
+    private final TreeMap<Long, Long> holes = new TreeMap<>();
+    private List<Outgoing> unsent = List.of();
+
+    public OutboxClusterRelay(JdbcTemplate jdbc,
+                              @Value("${app.relay.node-id:}") String nodeId,
+                              @Value("${app.relay.heartbeat-millis:2000}") long heartbeatMillis,
+                              @Value("${app.relay.outbox.poll-millis:50}") long pollMillis,
+                              @Value("${app.relay.outbox.flush-millis:20}") long flushMillis,
+                              @Value("${app.relay.outbox.batch-size:500}") int batchSize,
+                              @Value("${app.relay.outbox.grace-millis:2000}") long graceMillis,
+                              @Value("${app.relay.outbox.retention-millis:60000}") long retentionMillis,
+                              @Value("${app.relay.outbox.queue-capacity:10000}") int queueCapacity) {
+        this.jdbc = jdbc;
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? "node-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        this.heartbeatMillis = Math.max(1, heartbeatMillis);
+        this.pollMillis = Math.max(1, pollMillis);
+        this.flushMillis = Math.max(1, flushMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.graceMillis = Math.max(0, graceMillis);
+        this.retentionMillis = Math.max(this.graceMillis * 2, retentionMillis);
+        this.outgoing = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-relay");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // The tables exist once the context is up. The cursor is fixed at the newest row before the
+    // in-memory indexes load from the database, and polling starts once they have (readiness
+    // follows every ApplicationReadyEvent listener), so every change is either in what they
+    // load or replayed afterwards.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM relay_outbox", Long.class);
+        maxSeen = max != null ? max : 0;
+        heartbeat();
+
+        executor.scheduleWithFixedDelay(() -> safely("heartbeat", this::heartbeat), heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> safely("flush", this::flush), flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void startPolling(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || polling) return;
+        polling = true;
+        executor.scheduleWithFixedDelay(() -> safely("poll", this::poll), 0, pollMillis, TimeUnit.MILLISECONDS);
+        logger.info("Cluster relay {} started (outbox)", nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+            jdbc.update("DELETE FROM relay_nodes WHERE node_id = ?", nodeId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.warn("Cluster relay {} did not leave cleanly: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public String transport() {
+        return "outbox";
+    }
+
+    @Override
+    public boolean hasPeers() {
+        return peers > 0;
+    }
+
+    @Override
+    public void publish(Long userId, String destination, String payload) {
+        if (!outgoing.offer(new Outgoing(userId, destination, payload, System.currentTimeMillis()))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void broadcast(String topic, String payload) {
+        publish(BROADCAST, topic, payload);
+    }
+
+    @Override
+    public void onReceive(Consumer<Envelope> handler) {
+        handlers.add(handler);
+    }
+
+    @Override
+    public int pending() {
+        return outgoing.size();
+    }
+
+    @Override
+    public long dropped() {
+        return dropped.get();
+    }
+
+    // ============================
+    // RELAY THREAD
+    // ============================
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        jdbc.update(HEARTBEAT, nodeId, now);
+        Integer n = jdbc.queryForObject(COUNT_PEERS, Integer.class, nodeId, now - 3 * heartbeatMillis);
+        peers = n != null ? n : 0;
+        jdbc.update("DELETE FROM relay_outbox WHERE created_at < ?", now - retentionMillis);
+    }
+
+    // On failure the batch is kept and retried first; meanwhile publishes queue up to capacity
+    // and are then counted as dropped
+    private void flush() {
+        while (true) {
+            if (unsent.isEmpty()) {
+                List<Outgoing> batch = new ArrayList<>(batchSize);
+                if (outgoing.drainTo(batch, batchSize) == 0) return;
+                unsent = batch;
+            }
+            jdbc.batchUpdate(INSERT, unsent, unsent.size(), (ps, o) -> {
+                ps.setString(1, nodeId);
+                ps.setLong(2, o.userId());
+                ps.setString(3, o.destination());
+                ps.setString(4, o.payload());
+                ps.setLong(5, o.createdAt());
+            });
+            unsent = List.of();
+        }
+    }
+
+    private void poll() {
+        long now = System.currentTimeMillis();
+        List<Long> wanted = new ArrayList<>();
+
+        // rows past the newest id seen; ids skipped on the way may still be committing
+        long[] last = {maxSeen};
+        jdbc.query(POLL_NEW, rs -> {
+            long id = rs.getLong(1);
+            if (id - last[0] - 1 <= MAX_HOLES) {
+                for (long gap = last[0] + 1; gap < id; gap++) holes.put(gap, now);
+            }
+            last[0] = id;
+            if (!nodeId.equals(rs.getString(2))) wanted.add(id);
+        }, maxSeen, batchSize);
+        maxSeen = last[0];
+
+        // holes that have filled in since, then forget those older than the grace window
+        if (!holes.isEmpty()) {
+            for (List<Long> chunk : chunks(new ArrayList<>(holes.keySet()))) {
+                jdbc.query(String.format(POLL_IDS, placeholders(chunk.size())), rs -> {
+                    long id = rs.getLong(1);
+                    holes.remove(id);
+                    if (!nodeId.equals(rs.getString(2))) wanted.add(id);
+                }, chunk.toArray());
+            }
+            holes.values().removeIf(noticed -> noticed <= now - graceMillis);
+            while (holes.size() > MAX_HOLES) holes.pollFirstEntry();
+        }
+        if (wanted.isEmpty()) return;
+
+        Collections.sort(wanted);
+        for (List<Long> chunk : chunks(wanted)) {
+            List<Envelope> rows = jdbc.query(String.format(FETCH, placeholders(chunk.size())), (rs, i) ->
+                    new Envelope(rs.getString(2), rs.getLong(3), rs.getString(4), rs.getString(5), rs.getLong(6)),
+                    chunk.toArray());
+            for (Envelope e : rows) {
+                for (Consumer<Envelope> handler : handlers) {
+                    try {
+                        handler.accept(e);
+                    } catch (RuntimeException ex) {
+                        logger.warn("Relayed message to {} failed: {}", e.destination(), ex.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            chunks.add(ids.subList(from, Math.min(from + CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    private void safely(String task, Runnable r) {
+        try {
+            r.run();
+        } catch (RuntimeException e) {
+            logger.warn("Cluster relay {} {} failed: {}", nodeId, task, e.getMessage());
+        }
+    }
+}
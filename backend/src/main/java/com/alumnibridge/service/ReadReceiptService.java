@@ -0,0 +1,205 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.ConversationSummary;
+import com.alumnibridge.repository.ConversationSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read state per (user, conversation) as a high-water-mark message id, stored on the
+ * conversation_summary row. Acks only raise an in-memory mark; a scheduled flush writes
+ * all marks that moved in one JDBC batch and then pushes one receipt per conversation to
+ * the other user on /queue/receipts/{userId}, so a burst of reads is one write and one frame.
+ * Marks never pass the conversation's last message, and only rows the flush actually moved
+ * produce a receipt.
+ */
+@Service
+public class ReadReceiptService {
+    private static final Logger logger = LoggerFactory.getLogger(ReadReceiptService.class);
+
+    // Move one side's mark forward, capped at the last message, and recount what is still
+    // unread above it (0 without counting when the mark reaches the last message)
+    private static final String MARK_READ =
+            "UPDATE conversation_summary SET unread_%1$s = CASE WHEN ? >= last_message_id THEN 0 ELSE " +
+            "(SELECT COUNT(*) FROM messages m WHERE m.pair_low_id = ? AND m.pair_high_id = ? AND m.receiver_id = ? AND m.id > ?) END, " +
+            "read_%1$s_id = LEAST(?, last_message_id) " +
+            "WHERE pair_low_id = ? AND pair_high_id = ? AND read_%1$s_id < LEAST(?, last_message_id)";
+    // Where the marks of the moved rows ended up
+    private static final String READ_MARKS =
+            "SELECT pair_low_id, pair_high_id, read_low_id, read_high_id FROM conversation_summary " +
+            "WHERE pair_low_id IN (%s) AND pair_high_id IN (%s)";
+    private static final int CHUNK = 500;
+
+    private final JdbcTemplate jdbc;
+    private final ConversationSummaryRepository summaryRepository;
+    private final UserQueueSender userQueues;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+
+    // acks not yet written: highest message id per (reader, other user)
+    private final Map<Ack, Long> pending = new ConcurrentHashMap<>();
+
+    public ReadReceiptService(JdbcTemplate jdbc,
+                              ConversationSummaryRepository sr,
+                              UserQueueSender uq,
+                              ApplicationEventPublisher ep,
+                              PlatformTransactionManager tm) {
+        this.jdbc = jdbc;
+        this.summaryRepository = sr;
+        this.userQueues = uq;
+        this.eventPublisher = ep;
+        this.tx = new TransactionTemplate(tm);
+    }
+
+    private record Ack(Long readerId, Long otherUserId) {}
+
+    // ============================
+    // ACKS
+    // ============================
+
+    // readerId has seen the conversation with otherUserId up to messageId
+    public void ack(Long readerId, Long otherUserId, long messageId) {
+        if (messageId <= 0 || readerId.equals(otherUserId)) return;
+        pending.merge(new Ack(readerId, otherUserId), messageId, Math::max);
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.read-flush-millis:1000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<Ack, Long> batch = new HashMap<>();
+        for (Ack ack : pending.keySet()) {
+            Long messageId = pending.remove(ack);
+            if (messageId != null) batch.put(ack, messageId);
+        }
+
+        List<Map.Entry<Ack, Long>> lowSide = new ArrayList<>();
+        List<Map.Entry<Ack, Long>> highSide = new ArrayList<>();
+        for (Map.Entry<Ack, Long> e : batch.entrySet()) {
+            (e.getKey().readerId() < e.getKey().otherUserId() ? lowSide : highSide).add(e);
+        }
+
+        Map<Ack, Long> moved;
+        try {
+            moved = tx.execute(status -> {
+                List<Ack> updated = new ArrayList<>(markRead("low", lowSide));
+                updated.addAll(markRead("high", highSide));
+                return readMarks(updated);
+            });
+        } catch (RuntimeException e) {
+            // keep them for the next flush
+            batch.forEach((ack, messageId) -> pending.merge(ack, messageId, Math::max));
+            logger.warn("Could not flush {} read acks: {}", batch.size(), e.getMessage());
+            return;
+        }
+        if (moved == null || moved.isEmpty()) return;
+
+        moved.forEach(this::sendReceipt);
+        // the readers' unread counts changed
+        eventPublisher.publishEvent(new ChatChangedEvent(moved.keySet().stream()
+                .map(ack -> new ChatChangedEvent.Change(ack.readerId(), ack.otherUserId()))
+                .toList()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // The acks whose row moved: no row (nobody wrote in that conversation) or a mark already
+    // there are not receipts
+    private List<Ack> markRead(String side, List<Map.Entry<Ack, Long>> acks) {
+        if (acks.isEmpty()) return List.of();
+        int[][] counts = jdbc.batchUpdate(String.format(MARK_READ, side), acks, acks.size(), (ps, e) -> {
+            long readerId = e.getKey().readerId();
+            long otherUserId = e.getKey().otherUserId();
+            long low = Math.min(readerId, otherUserId);
+            long high = Math.max(readerId, otherUserId);
+            long messageId = e.getValue();
+            ps.setLong(1, messageId);
+            ps.setLong(2, low);
+            ps.setLong(3, high);
+            ps.setLong(4, readerId);
+            ps.setLong(5, messageId);
+            ps.setLong(6, messageId);
+            ps.setLong(7, low);
+            ps.setLong(8, high);
+            ps.setLong(9, messageId);
+        });
+
+        List<Ack> updated = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) updated.add(acks.get(i).getKey());
+                i++;
+            }
+        }
+        return updated;
+    }
+
+    // Stored mark per ack, read back so receipts carry the capped value
+    private Map<Ack, Long> readMarks(List<Ack> acks) {
+        Map<Ack, Long> marks = new HashMap<>();
+        for (int from = 0; from < acks.size(); from += CHUNK) {
+            List<Ack> chunk = acks.subList(from, Math.min(from + CHUNK, acks.size()));
+            Set<Ack> wanted = new HashSet<>(chunk);
+            List<Object> args = new ArrayList<>();
+            chunk.forEach(a -> args.add(Math.min(a.readerId(), a.otherUserId())));
+            chunk.forEach(a -> args.add(Math.max(a.readerId(), a.otherUserId())));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+
+            jdbc.query(String.format(READ_MARKS, in, in), rs -> {
+                long low = rs.getLong(1);
+                long high = rs.getLong(2);
+                Ack lowReads = new Ack(low, high);
+                Ack highReads = new Ack(high, low);
+                if (wanted.contains(lowReads)) marks.put(lowReads, rs.getLong(3));
+                if (wanted.contains(highReads)) marks.put(highReads, rs.getLong(4));
+            }, args.toArray());
+        }
+        return marks;
+    }
+
+    private void sendReceipt(Ack ack, Long messageId) {
+        Map<String, Object> receipt = new LinkedHashMap<>();
+        receipt.put("readerId", ack.readerId());
+        receipt.put("lastReadId", messageId);
+        receipt.put("at", LocalDateTime.now().toString());
+        userQueues.sendToUser(ack.otherUserId(), "/queue/receipts/" + ack.otherUserId(), receipt);
+    }
+
+    // ============================
+    // READS
+    // ============================
+
+    // Unread count for userId in this conversation, counting acks not flushed yet
+    public int unreadFor(Long userId, ConversationSummary summary) {
+        Long acked = pending.get(new Ack(userId, summary.otherUserId(userId)));
+        if (acked != null && acked >= summary.getLastMessageId()) return 0;
+        return summary.unreadFor(userId);
+    }
+
+    // Highest message id readerId has read in the conversation with otherUserId
+    public long readUpTo(Long readerId, Long otherUserId) {
+        Optional<ConversationSummary> summary = summaryRepository
+                .findByPairLowIdAndPairHighId(Math.min(readerId, otherUserId), Math.max(readerId, otherUserId));
+        if (summary.isEmpty()) return 0L;
+        long stored = summary.get().readUpToFor(readerId);
+        Long acked = pending.get(new Ack(readerId, otherUserId));
+        if (acked == null) return stored;
+        return Math.max(stored, Math.min(acked, summary.get().getLastMessageId()));
+    }
+}
@@ -0,0 +1,282 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.service.UserDirectoryIndex.Dimension;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "People you may know". Candidates are friends of friends (accepted connections, 2 hops)
+ * plus the user's cohort (same batch and same degree or institute). They are scored on
+ * mutual connections, shared batch/degree/institute and skill overlap.
+ * A user's list is computed on their first request and kept, packed into a long[], so later
+ * requests only filter a short stored list. A background job refreshes the lists that were
+ * read recently and drops the rest, so memory follows active users rather than everyone.
+ * Stored lists touched by an accepted connection or a profile change are recomputed by a
+ * quick follow-up pass.
+ */
+@Service
+public class RecommendationService {
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final double MUTUAL_WEIGHT = 3.0;
+    private static final double BATCH_WEIGHT = 2.0;
+    private static final double DEGREE_WEIGHT = 1.5;
+    private static final double INSTITUTE_WEIGHT = 1.0;
+    private static final double SKILL_WEIGHT = 0.5;
+    private static final int MAX_SKILLS_COUNTED = 5;
+
+    private static final int STORED_PER_USER = 50;
+    private static final int MAX_COHORT_CANDIDATES = 5000;
+    // neighbours with more connections than this add little signal and a lot of work
+    private static final int MAX_NEIGHBOUR_FANOUT = 2000;
+    private static final int MAX_DIRTY_NEIGHBOURS = 500;
+
+    private final ConnectionGraph connectionGraph;
+    private final UserDirectoryIndex directoryIndex;
+    private final SkillIndex skillIndex;
+
+    private final long idleMillis;
+
+    private final Map<Long, Stored> recommendations = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public RecommendationService(ConnectionGraph cg, UserDirectoryIndex di, SkillIndex si,
+                                 @Value("${app.recommendations.idle-evict-millis:604800000}") long idleMillis) {
+        this.connectionGraph = cg;
+        this.directoryIndex = di;
+        this.skillIndex = si;
+        this.idleMillis = idleMillis;
+    }
+
+    public record Recommendation(Long userId, double score, int mutualConnections, int sharedSkills,
+                                 boolean sameBatch, boolean sameDegree, boolean sameInstitute) {}
+
+    // One user's list, best first. Each entry packs
+    // candidate id (32 bits) | mutual connections (16) | shared skills (8) | batch, degree, institute flags
+    private static final class Stored {
+        final long[] packed;
+        volatile long lastReadAt;
+
+        Stored(long[] packed, long lastReadAt) {
+            this.packed = packed;
+            this.lastReadAt = lastReadAt;
+        }
+    }
+
+    private static long pack(Recommendation r) {
+        return (r.userId() << 32)
+                | ((long) Math.min(r.mutualConnections(), 0xFFFF) << 16)
+                | ((long) Math.min(r.sharedSkills(), 0xFF) << 8)
+                | (r.sameBatch() ? 4 : 0) | (r.sameDegree() ? 2 : 0) | (r.sameInstitute() ? 1 : 0);
+    }
+
+    private static Recommendation unpack(long p) {
+        int m = (int) ((p >>> 16) & 0xFFFF);
+        int s = (int) ((p >>> 8) & 0xFF);
+        boolean batch = (p & 4) != 0, degree = (p & 2) != 0, institute = (p & 1) != 0;
+        return new Recommendation(p >>> 32, score(m, s, batch, degree, institute), m, s, batch, degree, institute);
+    }
+
+    private static double score(int mutual, int skills, boolean batch, boolean degree, boolean institute) {
+        return MUTUAL_WEIGHT * mutual
+                + (batch ? BATCH_WEIGHT : 0)
+                + (degree ? DEGREE_WEIGHT : 0)
+                + (institute ? INSTITUTE_WEIGHT : 0)
+                + SKILL_WEIGHT * Math.min(skills, MAX_SKILLS_COUNTED);
+    }
+
+    // ============================
+    // BACKGROUND JOBS
+    // ============================
+    @Scheduled(initialDelayString = "${app.recommendations.initial-delay-millis:60000}",
+               fixedDelayString = "${app.recommendations.refresh-millis:3600000}")
+    public void refreshAll() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        int refreshed = 0, dropped = 0;
+        for (Map.Entry<Long, Stored> e : recommendations.entrySet()) {
+            if (e.getValue().lastReadAt < idleSince) {
+                recommendations.remove(e.getKey(), e.getValue());
+                dropped++;
+                continue;
+            }
+            dirty.remove(e.getKey());
+            recompute(e.getKey());
+            refreshed++;
+        }
+        logger.info("Recommendations refreshed for {} active users, {} idle lists dropped", refreshed, dropped);
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendations.dirty-refresh-millis:5000}")
+    public void refreshDirty() {
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext()) {
+            Long id = it.next();
+            it.remove();
+            recompute(id);
+        }
+    }
+
+    // ============================
+    // INCREMENTAL UPDATES
+    // ============================
+    // A new or removed connection changes both users' lists and their friends' friends-of-friends
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionChanged(ConnectionChangedEvent event) {
+        if (event.getType() != ConnectionChangedEvent.Type.ACCEPTED
+                && event.getType() != ConnectionChangedEvent.Type.DISCONNECTED) {
+            return; // open requests are filtered out at read time
+        }
+        markDirty(event.getSenderId());
+        markDirty(event.getReceiverId());
+        markNeighboursDirty(event.getSenderId());
+        markNeighboursDirty(event.getReceiverId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConnectionsChanged(ConnectionBatchChangedEvent batch) {
+        batch.getChanges().forEach(this::onConnectionChanged);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(UserDirectoryChangedEvent event) {
+        markDirty(event.getCurrent().getUserId());
+    }
+
+    private void markNeighboursDirty(Long userId) {
+        int marked = 0;
+        for (int n : connectionGraph.connectionsOf(userId)) {
+            if (++marked > MAX_DIRTY_NEIGHBOURS) break; // the rest wait for the full refresh
+            markDirty((long) n);
+        }
+    }
+
+    // Lists nobody holds are computed fresh when asked for
+    private void markDirty(Long userId) {
+        if (recommendations.containsKey(userId)) dirty.add(userId);
+    }
+
+    // ============================
+    // SCORING
+    // ============================
+    private Stored recompute(Long userId) {
+        DirectoryEntry me = directoryIndex.entryOf(userId);
+        if (me == null || me.getRole() == User.Role.ADMIN) {
+            recommendations.remove(userId);
+            return null;
+        }
+        int u = Math.toIntExact(userId);
+
+        Map<Integer, Integer> mutual = connectionGraph.friendsOfFriends(userId, MAX_NEIGHBOUR_FANOUT);
+        RoaringBitmap excluded = connectionGraph.connectionsOf(userId);
+        excluded.or(connectionGraph.pendingOf(userId));
+        excluded.add(u);
+
+        RoaringBitmap sameBatch = me.getBatchYear() != null
+                ? directoryIndex.anyOf(Dimension.BATCH_YEAR, List.of(me.getBatchYear().toString())) : new RoaringBitmap();
+        RoaringBitmap sameDegree = me.getDegreeName() != null
+                ? directoryIndex.anyOf(Dimension.DEGREE, List.of(me.getDegreeName())) : new RoaringBitmap();
+        RoaringBitmap sameInstitute = me.getInstitute() != null && !me.getInstitute().isBlank()
+                ? directoryIndex.anyOf(Dimension.INSTITUTE, List.of(me.getInstitute())) : new RoaringBitmap();
+
+        RoaringBitmap cohort = me.getBatchYear() != null
+                ? RoaringBitmap.and(sameBatch, RoaringBitmap.or(sameDegree, sameInstitute))
+                : RoaringBitmap.and(sameDegree, sameInstitute);
+        cohort.andNot(excluded);
+        if (cohort.getCardinality() > MAX_COHORT_CANDIDATES) cohort = cohort.limit(MAX_COHORT_CANDIDATES);
+
+        RoaringBitmap candidates = cohort;
+        mutual.keySet().forEach(candidates::add);
+        candidates.andNot(excluded);
+        candidates.andNot(directoryIndex.anyOf(Dimension.ROLE, List.of(User.Role.ADMIN.name())));
+
+        Map<Integer, Integer> sharedSkills = skillIndex.sharedSkillCounts(userId, candidates);
+
+        PriorityQueue<Recommendation> top = new PriorityQueue<>(
+                Comparator.comparingDouble(Recommendation::score).thenComparing(Recommendation::userId, Comparator.reverseOrder()));
+        for (int c : candidates) {
+            int m = mutual.getOrDefault(c, 0);
+            int s = sharedSkills.getOrDefault(c, 0);
+            boolean batch = sameBatch.contains(c);
+            boolean degree = sameDegree.contains(c);
+            boolean institute = sameInstitute.contains(c);
+
+            double score = score(m, s, batch, degree, institute);
+            if (score <= 0) continue;
+
+            top.offer(new Recommendation((long) c, score, m, s, batch, degree, institute));
+            if (top.size() > STORED_PER_USER) top.poll();
+        }
+
+        List<Recommendation> list = new ArrayList<>(top);
+        list.sort(Comparator.comparingDouble(Recommendation::score).reversed().thenComparing(Recommendation::userId));
+        long[] packed = new long[list.size()];
+        for (int i = 0; i < packed.length; i++) packed[i] = pack(list.get(i));
+
+        Stored previous = recommendations.get(userId);
+        Stored stored = new Stored(packed, previous != null ? previous.lastReadAt : System.currentTimeMillis());
+        recommendations.put(userId, stored);
+        return stored;
+    }
+
+    // ============================
+    // READ
+    // ============================
+
+    // Top-k from the stored list (computed now on first use), skipping anyone connected or
+    // requested since it was computed
+    public List<Map<String, Object>> recommendationsFor(Long userId, int limit) {
+        Stored stored = recommendations.get(userId);
+        if (stored == null) stored = recompute(userId);
+        if (stored == null) return List.of();
+        stored.lastReadAt = System.currentTimeMillis();
+
+        RoaringBitmap excluded = connectionGraph.connectionsOf(userId);
+        excluded.or(connectionGraph.pendingOf(userId));
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (long packed : stored.packed) {
+            if (result.size() >= limit) break;
+            Recommendation r = unpack(packed);
+            if (excluded.contains(Math.toIntExact(r.userId()))) continue;
+
+            DirectoryEntry e = directoryIndex.entryOf(r.userId());
+            if (e == null) continue;
+            result.add(toCard(e, r));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toCard(DirectoryEntry e, Recommendation r) {
+        List<String> reasons = new ArrayList<>();
+        if (r.mutualConnections() > 0) {
+            reasons.add(r.mutualConnections() + (r.mutualConnections() == 1 ? " mutual connection" : " mutual connections"));
+        }
+        if (r.sameBatch()) reasons.add("Batch of " + e.getBatchYear());
+        if (r.sameDegree()) reasons.add("Also studied " + e.getDegreeName());
+        if (r.sameInstitute()) reasons.add("Also at " + e.getInstitute());
+        if (r.sharedSkills() > 0) {
+            reasons.add(r.sharedSkills() + (r.sharedSkills() == 1 ? " shared skill" : " shared skills"));
+        }
+
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", e.getUserId());
+        card.put("name", e.getName());
+        card.put("role", e.getRole() != null ? e.getRole().name() : null);
+        card.put("institute", e.getInstitute());
+        card.put("batchYear", e.getBatchYear());
+        card.put("degreeName", e.getDegreeName());
+        card.put("score", r.score());
+        card.put("mutualConnections", r.mutualConnections());
+        card.put("reasons", reasons);
+        return card;
+    }
+}
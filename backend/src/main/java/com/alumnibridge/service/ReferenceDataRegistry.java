@@ -0,0 +1,205 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.Batch;
+import com.alumnibridge.entity.Degree;
+import com.alumnibridge.repository.BatchRepository;
+import com.alumnibridge.repository.DegreeRepository;
+import com.alumnibridge.repository.ProfileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Batches and degrees kept in memory. Profile saves resolve them without a query,
+ * and a miss is inserted in its own transaction; when a concurrent writer got there first
+ * the unique year/name constraint rejects it and the winner's row is read instead.
+ * Cached entities are detached and only used as association references.
+ */
+@Component
+public class ReferenceDataRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+    private final BatchRepository batchRepository;
+    private final DegreeRepository degreeRepository;
+    private final ProfileRepository profileRepository;
+    private final OneOffMigrations migrations;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate newTx;
+
+    private final Map<Integer, Batch> batchesByYear = new ConcurrentHashMap<>();
+    private final Map<Long, Batch> batchesById = new ConcurrentHashMap<>();
+    private final Map<String, Degree> degreesByName = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public ReferenceDataRegistry(BatchRepository br,
+                                 DegreeRepository dr,
+                                 ProfileRepository pr,
+                                 OneOffMigrations om,
+                                 PlatformTransactionManager tm) {
+        this.batchRepository = br;
+        this.degreeRepository = dr;
+        this.profileRepository = pr;
+        this.migrations = om;
+        this.tx = new TransactionTemplate(tm);
+        // creation runs in its own transaction: a rejected insert doesn't poison the caller's,
+        // and the re-read sees the row a concurrent writer committed
+        this.newTx = new TransactionTemplate(tm);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // ============================
+    // STARTUP: DEDUP + LOAD
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // before the directory indexes read degree/batch names
+    public void load() {
+        List<Batch> batches = batchRepository.findAll(Sort.by("id"));
+        List<Degree> degrees = degreeRepository.findAll(Sort.by("id"));
+        // One-off migration: only rows from before uk_batches_year/uk_degrees_name can collide.
+        // The constraints come from the entity mappings and are added by the schema update
+        // once the table is clean, so this finds nothing after the first start.
+        tx.executeWithoutResult(status -> {
+            mergeDuplicates(batches, b -> b.getYear() == null ? null : b.getYear().toString(),
+                    Batch::getId, profileRepository::reassignBatch, batchRepository::deleteAllByIdInBatch);
+            mergeDuplicates(degrees, d -> key(d.getName()),
+                    Degree::getId, profileRepository::reassignDegree, degreeRepository::deleteAllByIdInBatch);
+        });
+        // batch rosters are keyed on profiles.user_name
+        migrations.runOnce("profiles-user-name", () ->
+                logger.info("Copied user names onto {} profiles", profileRepository.backfillUserNames()));
+
+        // rows come in id order, so the first per key is the one the merge kept
+        batchesByYear.clear();
+        batchesById.clear();
+        degreesByName.clear();
+        for (Batch b : batches) {
+            if (b.getYear() != null && batchesByYear.putIfAbsent(b.getYear(), b) == null) batchesById.put(b.getId(), b);
+        }
+        for (Degree d : degrees) {
+            if (d.getName() != null) degreesByName.putIfAbsent(key(d.getName()), d);
+        }
+        version.incrementAndGet();
+        logger.info("Reference data loaded: {} batches, {} degrees", batchesByYear.size(), degreesByName.size());
+    }
+
+    // Rows created before the unique constraints existed: keep the lowest id, re-point profiles, drop the rest
+    private static <T> void mergeDuplicates(List<T> rows, Function<T, String> keyOf, Function<T, Long> idOf,
+                                            BiConsumer<Long, Collection<Long>> reassign,
+                                            Consumer<Collection<Long>> delete) {
+        Map<String, List<Long>> idsByKey = new HashMap<>();
+        for (T row : rows) {
+            String k = keyOf.apply(row);
+            if (k != null) idsByKey.computeIfAbsent(k, x -> new ArrayList<>()).add(idOf.apply(row));
+        }
+        for (Map.Entry<String, List<Long>> e : idsByKey.entrySet()) {
+            List<Long> ids = e.getValue();
+            if (ids.size() < 2) continue;
+            Collections.sort(ids);
+            List<Long> duplicates = ids.subList(1, ids.size());
+            reassign.accept(ids.get(0), duplicates);
+            delete.accept(duplicates);
+            logger.info("Merged {} duplicate rows for '{}' into id {}", duplicates.size(), e.getKey(), ids.get(0));
+        }
+    }
+
+    // ============================
+    // GET-OR-CREATE
+    // ============================
+    public Batch getOrCreateBatch(Integer year) {
+        Batch cached = batchesByYear.get(year);
+        if (cached != null) return cached;
+
+        Batch batch;
+        try {
+            batch = newTx.execute(status -> batchRepository.saveAndFlush(new Batch(null, year, null)));
+        } catch (DataIntegrityViolationException e) {
+            batch = newTx.execute(status -> batchRepository.findByYear(year).orElseThrow(() -> e));
+        }
+        return registerBatch(batch);
+    }
+
+    public Degree getOrCreateDegree(String name) {
+        String key = key(name);
+        Degree cached = degreesByName.get(key);
+        if (cached != null) return cached;
+
+        Degree degree;
+        try {
+            degree = newTx.execute(status -> degreeRepository.saveAndFlush(new Degree(null, name.trim())));
+        } catch (DataIntegrityViolationException e) {
+            degree = newTx.execute(status -> degreeRepository.findFirstByName(name.trim()).orElseThrow(() -> e));
+        }
+        return register(degreesByName, key, degree);
+    }
+
+    // Lookup only; a miss is confirmed against the table once in case another node created it
+    public Optional<Degree> findDegree(String name) {
+        if (name == null || name.isBlank()) return Optional.empty();
+        String key = key(name);
+        Degree cached = degreesByName.get(key);
+        if (cached != null) return Optional.of(cached);
+        return degreeRepository.findFirstByName(name.trim()).map(d -> register(degreesByName, key, d));
+    }
+
+    private Batch registerBatch(Batch batch) {
+        Batch registered = register(batchesByYear, batch.getYear(), batch);
+        batchesById.putIfAbsent(registered.getId(), registered);
+        return registered;
+    }
+
+    private <K, V> V register(Map<K, V> map, K key, V value) {
+        V previous = map.putIfAbsent(key, value);
+        if (previous != null) return previous;
+        version.incrementAndGet();
+        return value;
+    }
+
+    // ============================
+    // READ
+    // ============================
+
+    // Bumped whenever a batch or degree is added
+    public long version() {
+        return version.get();
+    }
+
+    public List<Batch> batches() {
+        List<Batch> list = new ArrayList<>(batchesByYear.values());
+        list.sort(Comparator.comparing(Batch::getId));
+        return list;
+    }
+
+    public List<Degree> degrees() {
+        List<Degree> list = new ArrayList<>(degreesByName.values());
+        list.sort(Comparator.comparing(Degree::getId));
+        return list;
+    }
+
+    // A miss is confirmed against the table once in case another node created it
+    public Optional<Batch> findBatch(Long id) {
+        if (id == null) return Optional.empty();
+        Batch cached = batchesById.get(id);
+        if (cached != null) return Optional.of(cached);
+        return batchRepository.findById(id).filter(b -> b.getYear() != null).map(this::registerBatch);
+    }
+
+    private static String key(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
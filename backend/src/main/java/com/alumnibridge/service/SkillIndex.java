@@ -0,0 +1,225 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.Skill;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Skill dictionary plus one posting bitmap (user ids) per skill, mirrored from the
+ * skills / user_skills tables. Skill filters and facet counts are bitmap operations
+ * instead of substring scans over Profile.skills.
+ */
+@Component
+public class SkillIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final Map<Integer, String> displayNames = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> postings = new HashMap<>();
+    private final Map<Long, int[]> skillsByUser = new HashMap<>();
+
+    // ============================
+    // BUILD / MAINTAIN
+    // ============================
+    public void rebuild(List<Skill> dictionary, List<Object[]> userSkillIds) {
+        lock.writeLock().lock();
+        try {
+            idsByName.clear();
+            displayNames.clear();
+            postings.clear();
+            skillsByUser.clear();
+            dictionary.forEach(this::registerLocked);
+
+            Map<Long, List<Integer>> byUser = new HashMap<>();
+            for (Object[] row : userSkillIds) {
+                Long userId = (Long) row[0];
+                int skillId = Math.toIntExact((Long) row[1]);
+                byUser.computeIfAbsent(userId, k -> new ArrayList<>()).add(skillId);
+                postings.computeIfAbsent(skillId, k -> new RoaringBitmap()).add(Math.toIntExact(userId));
+            }
+            byUser.forEach((userId, ids) ->
+                    skillsByUser.put(userId, ids.stream().mapToInt(Integer::intValue).toArray()));
+            postings.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSkillsChanged(UserSkillsChangedEvent event) {
+        int user = Math.toIntExact(event.getUserId());
+        lock.writeLock().lock();
+        try {
+            int[] old = skillsByUser.remove(event.getUserId());
+            if (old != null) {
+                for (int skillId : old) {
+                    RoaringBitmap ids = postings.get(skillId);
+                    if (ids != null) ids.remove(user);
+                }
+            }
+
+            int[] current = new int[event.getSkills().size()];
+            for (int i = 0; i < current.length; i++) {
+                Skill s = event.getSkills().get(i);
+                registerLocked(s);
+                current[i] = Math.toIntExact(s.getId());
+                postings.computeIfAbsent(current[i], k -> new RoaringBitmap()).add(user);
+            }
+            if (current.length > 0) skillsByUser.put(event.getUserId(), current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void registerLocked(Skill s) {
+        int id = Math.toIntExact(s.getId());
+        idsByName.putIfAbsent(s.getName(), id);
+        displayNames.putIfAbsent(id, s.getDisplayName() != null ? s.getDisplayName() : s.getName());
+    }
+
+    // ============================
+    // QUERY
+    // ============================
+
+    // Normalized names of the skills the user currently has
+    public Set<String> skillNamesOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            int[] ids = skillsByUser.get(userId);
+            if (ids == null) return Set.of();
+            Set<String> names = new HashSet<>();
+            for (int id : ids) names.add(SkillTokenizer.normalize(displayNames.get(id)));
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Normalized skill names -> skill id; unknown skills are left out
+    public Map<String, Integer> resolve(Collection<String> names) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> resolved = new LinkedHashMap<>();
+            for (String name : names) {
+                Integer id = idsByName.get(name);
+                if (id != null) resolved.put(name, id);
+            }
+            return resolved;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap usersWithAny(Collection<Integer> skillIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (Integer id : skillIds) {
+                RoaringBitmap ids = postings.get(id);
+                if (ids != null) result.or(ids);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap usersWithAll(Collection<Integer> skillIds) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Integer id : skillIds) {
+                RoaringBitmap ids = postings.get(id);
+                if (ids == null) return new RoaringBitmap();
+                if (result == null) result = ids.clone();
+                else result.and(ids);
+            }
+            return result != null ? result : new RoaringBitmap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users with a skill whose name contains `text`; under three characters a word of the
+    // name must start with it instead, as in name search
+    public RoaringBitmap usersWithSkillMatching(String text) {
+        String needle = SkillTokenizer.normalize(text);
+        RoaringBitmap result = new RoaringBitmap();
+        if (needle.isEmpty()) return result;
+        boolean prefix = needle.length() < 3;
+        lock.readLock().lock();
+        try {
+            idsByName.forEach((name, id) -> {
+                boolean hit = prefix
+                        ? name.startsWith(needle) || name.contains(" " + needle)
+                        : name.contains(needle);
+                RoaringBitmap ids = hit ? postings.get(id) : null;
+                if (ids != null) result.or(ids);
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Count of users in `within` having each given skill, keyed by display name
+    public Map<String, Long> facetCounts(Collection<Integer> skillIds, RoaringBitmap within) {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Integer id : skillIds) {
+                RoaringBitmap ids = postings.get(id);
+                counts.put(displayNames.get(id), ids == null ? 0L : RoaringBitmap.andCardinality(ids, within));
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // candidate id -> number of skills shared with the user, for candidates sharing at least one
+    public Map<Integer, Integer> sharedSkillCounts(Long userId, RoaringBitmap candidates) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> counts = new HashMap<>();
+            int[] mine = skillsByUser.get(userId);
+            if (mine == null) return counts;
+            for (int skillId : mine) {
+                RoaringBitmap ids = postings.get(skillId);
+                if (ids == null) continue;
+                for (int candidate : RoaringBitmap.and(ids, candidates)) {
+                    counts.merge(candidate, 1, Integer::sum);
+                }
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Most common skills among the users in `within`
+    public Map<String, Long> topSkills(RoaringBitmap within, int k) {
+        PriorityQueue<long[]> top = new PriorityQueue<>(Comparator.comparingLong(e -> e[1]));
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<Integer, RoaringBitmap> e : postings.entrySet()) {
+                long count = RoaringBitmap.andCardinality(e.getValue(), within);
+                if (count == 0) continue;
+                top.offer(new long[]{e.getKey(), count});
+                if (top.size() > k) top.poll();
+            }
+            List<long[]> sorted = new ArrayList<>(top);
+            sorted.sort((a, b) -> Long.compare(b[1], a[1]));
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (long[] e : sorted) counts.put(displayNames.get((int) e[0]), e[1]);
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
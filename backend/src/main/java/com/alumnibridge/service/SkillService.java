@@ -0,0 +1,121 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.Skill;
+import com.alumnibridge.repository.ProfileRepository;
+import com.alumnibridge.repository.SkillRepository;
+import com.alumnibridge.repository.UserSkillRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+// Keeps the skills dictionary and user_skills postings in sync with Profile.skills
+@Service
+@Transactional
+public class SkillService {
+    private static final Logger logger = LoggerFactory.getLogger(SkillService.class);
+    private static final String BACKFILL = "user-skills-backfill";
+
+    private final SkillRepository skillRepository;
+    private final UserSkillRepository userSkillRepository;
+    private final ProfileRepository profileRepository;
+    private final SkillIndex skillIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OneOffMigrations migrations;
+    private final JdbcTemplate jdbc;
+
+    public SkillService(SkillRepository sr,
+                        UserSkillRepository usr,
+                        ProfileRepository pr,
+                        SkillIndex si,
+                        ApplicationEventPublisher ep,
+                        OneOffMigrations om,
+                        JdbcTemplate jt) {
+        this.skillRepository = sr;
+        this.userSkillRepository = usr;
+        this.profileRepository = pr;
+        this.skillIndex = si;
+        this.eventPublisher = ep;
+        this.migrations = om;
+        this.jdbc = jt;
+    }
+
+    // Replace the user's skill postings with the ones parsed from rawSkills
+    public void syncUserSkills(Long userId, String rawSkills) {
+        Map<String, String> tokens = SkillTokenizer.tokenize(rawSkills);
+        if (tokens.keySet().equals(skillIndex.skillNamesOf(userId))) {
+            return; // unchanged, nothing to write
+        }
+
+        List<Skill> skills = writeUserSkills(userId, tokens);
+        eventPublisher.publishEvent(new UserSkillsChangedEvent(userId, skills));
+    }
+
+    // Postings for users created in bulk (the import): each new skill is inserted once and all
+    // postings go in one batch. The users are new, so there is nothing to delete first.
+    public void addSkillsForNewUsers(Map<Long, String> rawSkillsByUser) {
+        Map<Long, Map<String, String>> tokensByUser = new LinkedHashMap<>();
+        Map<String, String> allTokens = new LinkedHashMap<>();
+        rawSkillsByUser.forEach((userId, raw) -> {
+            Map<String, String> tokens = SkillTokenizer.tokenize(raw);
+            if (tokens.isEmpty()) return;
+            tokensByUser.put(userId, tokens);
+            tokens.forEach(allTokens::putIfAbsent);
+        });
+        if (allTokens.isEmpty()) return;
+
+        Set<String> known = skillIndex.resolve(allTokens.keySet()).keySet();
+        allTokens.forEach((name, displayName) -> {
+            if (!known.contains(name)) skillRepository.insertIfAbsent(name, displayName);
+        });
+        Map<String, Skill> skillsByName = new HashMap<>();
+        for (Skill skill : skillRepository.findByNameIn(allTokens.keySet())) skillsByName.put(skill.getName(), skill);
+
+        List<Object[]> postings = new ArrayList<>();
+        tokensByUser.forEach((userId, tokens) -> {
+            for (String name : tokens.keySet()) postings.add(new Object[]{userId, skillsByName.get(name).getId()});
+        });
+        jdbc.batchUpdate("INSERT INTO user_skills (user_id, skill_id) VALUES (?, ?)", postings);
+
+        tokensByUser.forEach((userId, tokens) -> eventPublisher.publishEvent(new UserSkillsChangedEvent(userId,
+                tokens.keySet().stream().map(skillsByName::get).toList())));
+    }
+
+    private List<Skill> writeUserSkills(Long userId, Map<String, String> tokens) {
+        userSkillRepository.deleteByUserId(userId);
+        if (tokens.isEmpty()) return List.of();
+
+        tokens.forEach(skillRepository::insertIfAbsent);
+        userSkillRepository.insertForUser(userId, tokens.keySet());
+        return skillRepository.findByNameIn(tokens.keySet());
+    }
+
+    // ============================
+    // STARTUP: BACKFILL + LOAD INDEX
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        // databases that already have postings only get the marker
+        migrations.runOnce(BACKFILL, () -> {
+            if (userSkillRepository.count() == 0) backfillFromProfiles();
+        });
+        skillIndex.rebuild(skillRepository.findAll(), userSkillRepository.findAllUserSkillIds());
+    }
+
+    // One-off migration for profiles saved before skills were normalized
+    private void backfillFromProfiles() {
+        List<Object[]> rows = profileRepository.findUserIdsAndSkills();
+        for (Object[] row : rows) {
+            writeUserSkills((Long) row[0], SkillTokenizer.tokenize((String) row[1]));
+        }
+        if (!rows.isEmpty()) {
+            logger.info("Backfilled skill postings for {} profiles", rows.size());
+        }
+    }
+}
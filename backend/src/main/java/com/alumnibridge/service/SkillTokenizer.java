@@ -0,0 +1,30 @@
+package com.alumnibridge.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Splits the free-form Profile.skills text into normalized skill names
+public final class SkillTokenizer {
+
+    private static final int MAX_SKILL_LENGTH = 64;
+
+    private SkillTokenizer() {}
+
+    // normalized name -> display spelling, in the order the user typed them
+    public static Map<String, String> tokenize(String raw) {
+        Map<String, String> skills = new LinkedHashMap<>();
+        if (raw == null || raw.isBlank()) return skills;
+
+        for (String token : raw.split("[,;|\\n]+")) {
+            String display = token.trim().replaceAll("\\s+", " ");
+            if (display.isEmpty() || display.length() > MAX_SKILL_LENGTH) continue;
+            skills.putIfAbsent(normalize(display), display);
+        }
+        return skills;
+    }
+
+    public static String normalize(String skill) {
+        return skill.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
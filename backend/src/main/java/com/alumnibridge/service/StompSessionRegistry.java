@@ -0,0 +1,57 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.security.StompPrincipal;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which users have a STOMP session on this node. Filled from the session lifecycle events
+ * (the user is the principal bound at CONNECT), so the relay only delivers here what
+ * someone here can receive.
+ */
+@Component
+public class StompSessionRegistry {
+
+    private final Map<String, Long> userBySession = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> sessionsByUser = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        if (event.getUser() instanceof StompPrincipal principal) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+            if (sessionId != null) register(sessionId, principal.id());
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    public void register(String sessionId, Long userId) {
+        if (userBySession.putIfAbsent(sessionId, userId) == null) {
+            sessionsByUser.merge(userId, 1, Integer::sum);
+        }
+    }
+
+    public void unregister(String sessionId) {
+        Long userId = userBySession.remove(sessionId);
+        if (userId != null) {
+            sessionsByUser.computeIfPresent(userId, (k, n) -> n > 1 ? n - 1 : null);
+        }
+    }
+
+    public boolean hasLocalSession(Long userId) {
+        return sessionsByUser.containsKey(userId);
+    }
+
+    public int sessionCount() {
+        return userBySession.size();
+    }
+}
@@ -0,0 +1,19 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import lombok.*;
+
+// Published when a user is created or their directory fields change.
+// previous is null for newly registered users. version is the user's directory_version
+// as written by this change (0 for a new user), so readers of a database snapshot can
+// tell whether the snapshot already contains it.
+@Getter @AllArgsConstructor
+public class UserDirectoryChangedEvent {
+    private final DirectoryEntry previous;
+    private final DirectoryEntry current;
+    private final long version;
+
+    public UserDirectoryChangedEvent(DirectoryEntry previous, DirectoryEntry current) {
+        this(previous, current, 0L);
+    }
+}
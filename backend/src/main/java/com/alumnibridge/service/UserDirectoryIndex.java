@@ -0,0 +1,187 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.repository.UserRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index over the directory filters (role, degree, institute, batch year).
+ * Each filter value maps to the compressed set of user ids having it, so a search is a
+ * handful of bitmap ORs/ANDs and only the matching users are loaded from the database.
+ */
+@Component
+public class UserDirectoryIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryIndex.class);
+
+    public enum Dimension {
+        ROLE, DEGREE, INSTITUTE, BATCH_YEAR
+    }
+
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap allUsers = new RoaringBitmap();
+    private final Map<Integer, DirectoryEntry> entries = new HashMap<>();
+    private final Map<Dimension, Map<String, RoaringBitmap>> postings = new EnumMap<>(Dimension.class);
+
+    public UserDirectoryIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        for (Dimension d : Dimension.values()) {
+            postings.put(d, new HashMap<>());
+        }
+    }
+
+    // ============================
+    // BUILD / MAINTAIN
+    // ============================
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<DirectoryEntry> rows = userRepository.findDirectoryEntries();
+        lock.writeLock().lock();
+        try {
+            allUsers.clear();
+            entries.clear();
+            postings.values().forEach(Map::clear);
+            rows.forEach(this::addLocked);
+            allUsers.runOptimize();
+            postings.values().forEach(m -> m.values().forEach(RoaringBitmap::runOptimize));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Directory index built for {} users", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDirectoryChanged(UserDirectoryChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.getPrevious() != null) {
+                removeLocked(event.getPrevious());
+            }
+            addLocked(event.getCurrent());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addLocked(DirectoryEntry e) {
+        int id = Math.toIntExact(e.getUserId());
+        allUsers.add(id);
+        entries.put(id, e);
+        keysOf(e).forEach((dim, key) ->
+                postings.get(dim).computeIfAbsent(key, k -> new RoaringBitmap()).add(id));
+    }
+
+    private void removeLocked(DirectoryEntry e) {
+        int id = Math.toIntExact(e.getUserId());
+        keysOf(e).forEach((dim, key) -> {
+            RoaringBitmap ids = postings.get(dim).get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) postings.get(dim).remove(key);
+            }
+        });
+    }
+
+    private static Map<Dimension, String> keysOf(DirectoryEntry e) {
+        Map<Dimension, String> keys = new EnumMap<>(Dimension.class);
+        if (e.getRole() != null) keys.put(Dimension.ROLE, normalize(e.getRole().name()));
+        if (e.getDegreeName() != null) keys.put(Dimension.DEGREE, normalize(e.getDegreeName()));
+        if (e.getInstitute() != null) keys.put(Dimension.INSTITUTE, normalize(e.getInstitute()));
+        if (e.getBatchYear() != null) keys.put(Dimension.BATCH_YEAR, String.valueOf(e.getBatchYear()));
+        return keys;
+    }
+
+    static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ============================
+    // QUERY
+    // ============================
+
+    // Current directory fields of one user, or null if unknown
+    public DirectoryEntry entryOf(Long userId) {
+        lock.readLock().lock();
+        try {
+            return entries.get(Math.toIntExact(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap allUsers() {
+        lock.readLock().lock();
+        try {
+            return allUsers.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Users having any of the given values in one dimension (OR)
+    public RoaringBitmap anyOf(Dimension dimension, Collection<String> values) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = new RoaringBitmap();
+            for (String v : values) {
+                RoaringBitmap ids = postings.get(dimension).get(normalize(v));
+                if (ids != null) result.or(ids);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // AND across dimensions, OR within each dimension's values. Empty filters match everyone.
+    public RoaringBitmap match(Map<Dimension, ? extends Collection<String>> filters) {
+        RoaringBitmap result;
+        lock.readLock().lock();
+        try {
+            result = allUsers.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (Map.Entry<Dimension, ? extends Collection<String>> f : filters.entrySet()) {
+            if (f.getValue() == null || f.getValue().isEmpty()) continue;
+            result.and(anyOf(f.getKey(), f.getValue()));
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    // Same semantics as the search endpoint: role may be a comma separated list (OR-ed),
+    // institute names can contain commas so they are matched as a single value
+    public RoaringBitmap match(String role, String degree, String institute, Integer batchYear) {
+        Map<Dimension, List<String>> filters = new EnumMap<>(Dimension.class);
+        filters.put(Dimension.ROLE, splitValues(role));
+        filters.put(Dimension.DEGREE, singleValue(degree));
+        filters.put(Dimension.INSTITUTE, singleValue(institute));
+        filters.put(Dimension.BATCH_YEAR, batchYear != null ? List.of(batchYear.toString()) : List.of());
+        return match(filters);
+    }
+
+    private static List<String> singleValue(String value) {
+        return value == null || value.isBlank() ? List.of() : List.of(value);
+    }
+
+    public static List<String> splitValues(String csv) {
+        if (csv == null || csv.isBlank()) return List.of();
+        List<String> values = new ArrayList<>();
+        for (String v : csv.split(",")) {
+            if (!v.isBlank()) values.add(v.trim());
+        }
+        return values;
+    }
+}
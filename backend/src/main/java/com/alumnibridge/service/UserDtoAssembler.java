@@ -0,0 +1,82 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Builds UserDto cards for any set of users in a constant number of queries:
+ * one fetch-joined SELECT (user, profile, batch, degree) per chunk of ids,
+ * instead of lazy loads per user.
+ */
+@Component
+public class UserDtoAssembler {
+
+    // keeps the IN (...) list at a size MySQL plans well
+    private static final int CHUNK = 1000;
+
+    private final UserRepository userRepository;
+
+    public UserDtoAssembler(UserRepository ur) {
+        this.userRepository = ur;
+    }
+
+    // Cards for `ids` in the given order; unknown ids are skipped
+    public List<UserDto> loadInOrder(List<Long> ids) {
+        Map<Long, UserDto> byId = loadById(ids);
+        List<UserDto> result = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            UserDto d = byId.get(id);
+            if (d != null) result.add(d);
+        }
+        return result;
+    }
+
+    public Map<Long, UserDto> loadById(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, UserDto> byId = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += CHUNK) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + CHUNK, distinct.size()));
+            for (User u : userRepository.findAllWithProfileByIdIn(chunk)) {
+                byId.put(u.getId(), toDto(u));
+            }
+        }
+        return byId;
+    }
+
+    // Maps an already loaded user; profile, batch and degree must be fetched with it
+    public static UserDto toDto(User u) {
+        if (u == null) {
+            return null;
+        }
+
+        UserDto d = new UserDto();
+
+        d.setId(u.getId());
+        d.setName(u.getName());
+        d.setEmail(u.getEmail());
+        d.setRole(u.getRole().name());
+
+        if (u.getProfile() != null) {
+            Profile p = u.getProfile();
+            d.setBio(p.getBio());
+            d.setHeadline(p.getHeadline());
+            d.setSkills(p.getSkills());
+            d.setLocation(p.getLocation());
+            d.setLinkedinUrl(p.getLinkedinUrl());
+            d.setGithubUrl(p.getGithubUrl());
+            d.setPortfolioUrl(p.getPortfolioUrl());
+            d.setPictureUrl(p.getPictureUrl());
+            d.setInstitute(p.getInstitute());
+
+            if (p.getBatch() != null) d.setBatchYear(p.getBatch().getYear());
+            if (p.getDegree() != null) d.setDegreeName(p.getDegree().getName());
+        }
+
+        return d;
+    }
+}
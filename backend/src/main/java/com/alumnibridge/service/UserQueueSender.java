@@ -0,0 +1,116 @@
+package com.alumnibridge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends to a user's queue (/queue/messages/{userId} and friends) wherever that user is
+ * connected: through this node's broker, and through the ClusterRelay when other nodes
+ * are up. Messages arriving from the relay are delivered here only if the user has a
+ * session on this node.
+ *
+ * There is no record of which node holds which user, so the fan-out is to every node:
+ * while any peer is alive, each message (every chat message included) is written to the
+ * relay outbox and read by all peers, even when the recipient is connected right here.
+ * Each peer drops it unless the user has a session there (path=skipped). A single node
+ * writes nothing to the outbox.
+ *
+ * Metrics, tagged with the node id: chat.relay.fanout (path=local|published|received|skipped)
+ * and chat.relay.delivery.latency (origin publish to local delivery, relayed messages only).
+ */
+@Component
+public class UserQueueSender {
+    private static final Logger logger = LoggerFactory.getLogger(UserQueueSender.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StompSessionRegistry sessions;
+    private final ClusterRelay relay;
+    private final ObjectMapper objectMapper;
+
+    private final Counter local;
+    private final Counter published;
+    private final Counter received;
+    private final Counter skipped;
+    private final Timer latency;
+
+    public UserQueueSender(SimpMessagingTemplate t,
+                           StompSessionRegistry sr,
+                           ClusterRelay cr,
+                           ObjectMapper om,
+                           MeterRegistry mr) {
+        this.messagingTemplate = t;
+        this.sessions = sr;
+        this.relay = cr;
+        this.objectMapper = om;
+
+        String node = cr.nodeId();
+        this.local = fanout(mr, node, "local");
+        this.published = fanout(mr, node, "published");
+        this.received = fanout(mr, node, "received");
+        this.skipped = fanout(mr, node, "skipped");
+        this.latency = Timer.builder("chat.relay.delivery.latency")
+                .description("Time from publish on the origin node to delivery on this one")
+                .tag("node", node)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(mr);
+        Gauge.builder("chat.relay.sessions", sr, StompSessionRegistry::sessionCount)
+                .tag("node", node).register(mr);
+        Gauge.builder("chat.relay.outbox.pending", cr, ClusterRelay::pending)
+                .tag("node", node).tag("transport", cr.transport()).register(mr);
+        Gauge.builder("chat.relay.outbox.dropped", cr, ClusterRelay::dropped)
+                .tag("node", node).tag("transport", cr.transport()).register(mr);
+
+        cr.onReceive(this::deliverRelayed);
+    }
+
+    private static Counter fanout(MeterRegistry mr, String node, String path) {
+        return Counter.builder("chat.relay.fanout").tag("node", node).tag("path", path).register(mr);
+    }
+
+    public void sendToUser(Long userId, String destination, Object payload) {
+        // the broker drops it when nobody here subscribed, so this stays unconditional
+        messagingTemplate.convertAndSend(destination, payload);
+        if (sessions.hasLocalSession(userId)) local.increment();
+
+        if (relay.hasPeers()) {
+            try {
+                relay.publish(userId, destination, objectMapper.writeValueAsString(payload));
+                published.increment();
+            } catch (JsonProcessingException e) {
+                logger.warn("Could not relay message to {}: {}", destination, e.getMessage());
+            }
+        }
+    }
+
+    // The relayed JSON goes to the broker as is, without a round trip through objects
+    private void deliverRelayed(ClusterRelay.Envelope e) {
+        if (e.isBroadcast()) return;
+        if (!sessions.hasLocalSession(e.userId())) {
+            skipped.increment();
+            return;
+        }
+        // recorded before the send: the broker may hand the message on synchronously
+        received.increment();
+        latency.record(Math.max(0, System.currentTimeMillis() - e.createdAt()), TimeUnit.MILLISECONDS);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(e.destination(), MessageBuilder.createMessage(
+                e.payload().getBytes(StandardCharsets.UTF_8), headers.getMessageHeaders()));
+    }
+}
@@ -1,7 +1,10 @@
 package com.alumnibridge.service;
 
 import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.dto.UserSearchPage;
+import org.roaringbitmap.RoaringBitmap;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -19,13 +22,26 @@ public interface UserService {
     // Update profile
     UserDto updateProfile(Long id, UserDto dto);
 
-    // Search users
-    List<UserDto> searchUsers(String q, String degree, String institute, Integer batchYear, String role);
+    // Search users (unbounded, kept behind the all=true flag)
+    List<UserDto> searchUsers(String q, String degree, String institute, Integer batchYear, String role,
+                              String skills, boolean matchAllSkills);
+
+    // Ids of every user searchUsers would return, for exports
+    RoaringBitmap matchingUserIds(String q, String degree, String institute, Integer batchYear, String role,
+                                  String skills, boolean matchAllSkills);
+
+    // Search users one keyset page at a time; cursor is null for the first page
+    UserSearchPage searchUsersPage(String q, String degree, String institute, Integer batchYear, String role,
+                                   String skills, boolean matchAllSkills, String cursor, int limit);
 
     // Connection requests
     void sendConnectionRequest(Long senderId, Long receiverId);
 
-    void respondConnectionRequest(Long requestId, boolean accept);
+    // Only the request's receiver can answer it
+    void respondConnectionRequest(Long receiverId, Long requestId, boolean accept);
+
+    // Accept or reject many requests addressed to receiverId; outcome per request id
+    Map<Long, String> respondConnectionRequests(Long receiverId, Collection<Long> requestIds, boolean accept);
 
     // Get pending connection requests for a user
     List<?> getPendingRequests(Long userId);
@@ -41,4 +57,13 @@ public interface UserService {
 
     // Get connection status between two users
     Map<String, Object> getConnectionStatus(Long userId, Long otherUserId);
+
+    // Connection status with each of the given users, keyed by their id
+    Map<Long, Map<String, Object>> getConnectionStatuses(Long userId, Collection<Long> otherUserIds);
+
+    // Mutual connections with another user: the count and the first `limit` of them
+    Map<String, Object> getMutualConnections(Long userId, Long otherUserId, int limit);
+
+    // Mutual connection count with each of the given users, keyed by their id
+    Map<Long, Integer> getMutualConnectionCounts(Long userId, Collection<Long> otherUserIds);
 }
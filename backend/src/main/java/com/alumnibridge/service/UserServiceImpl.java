@@ -1,14 +1,25 @@
 package com.alumnibridge.service;
 
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.dto.KeysetCursor;
 import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.dto.UserSearchPage;
 import com.alumnibridge.dto.ConnectionRequestDto;
 import com.alumnibridge.entity.*;
 import com.alumnibridge.exception.ResourceNotFoundException;
 import com.alumnibridge.repository.*;
 
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,20 +29,52 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final ConnectionRequestRepository connectionRepository;
-    private final BatchRepository batchRepository;
-    private final DegreeRepository degreeRepository;
+    private final ReferenceDataRegistry referenceData;
     private final ProfileRepository profileRepository;
+    private final UserDirectoryIndex directoryIndex;
+    private final SkillIndex skillIndex;
+    private final SkillService skillService;
+    private final NameTrigramIndex nameIndex;
+    private final ConnectionGraph connectionGraph;
+    private final UserDtoAssembler userDtoAssembler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbc;
+
+    // Max ids per IN (...) when hydrating index matches
+    private static final int HYDRATE_CHUNK = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int TOP_SKILL_FACETS = 10;
+
+    @Value("${app.search.name-similarity:0.5}")
+    private double nameSimilarityThreshold;
+
+    @Value("${app.search.name-max-results:500}")
+    private int nameMaxResults;
 
     public UserServiceImpl(UserRepository ur,
                            ConnectionRequestRepository cr,
-                           BatchRepository br,
-                           DegreeRepository dr,
-                           ProfileRepository pr) {
+                           ReferenceDataRegistry rd,
+                           ProfileRepository pr,
+                           UserDirectoryIndex di,
+                           SkillIndex si,
+                           SkillService ss,
+                           NameTrigramIndex ni,
+                           ConnectionGraph cg,
+                           UserDtoAssembler ua,
+                           ApplicationEventPublisher ep,
+                           JdbcTemplate jt) {
         this.userRepository = ur;
         this.connectionRepository = cr;
-        this.batchRepository = br;
-        this.degreeRepository = dr;
+        this.referenceData = rd;
         this.profileRepository = pr;
+        this.directoryIndex = di;
+        this.skillIndex = si;
+        this.skillService = ss;
+        this.nameIndex = ni;
+        this.connectionGraph = cg;
+        this.userDtoAssembler = ua;
+        this.eventPublisher = ep;
+        this.jdbc = jt;
     }
 
     // ============================
@@ -39,10 +82,10 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public UserDto getProfileByEmail(String email) {
-        User u = userRepository.findByEmail(email)
+        User u = userRepository.findWithProfileByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        return toDto(u);
+        return UserDtoAssembler.toDto(u);
     }
 
     // ============================
@@ -61,10 +104,10 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public UserDto getProfile(Long id) {
-        User u = userRepository.findById(id)
+        User u = userRepository.findWithProfileById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        return toDto(u);
+        return UserDtoAssembler.toDto(u);
     }
 
     // ============================
@@ -72,9 +115,13 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public UserDto updateProfile(Long id, UserDto dto) {
-        User u = userRepository.findById(id)
+        // first, so the row lock is held before `before` is read and concurrent edits line up
+        userRepository.bumpDirectoryVersion(id);
+        User u = userRepository.findWithProfileById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        DirectoryEntry before = DirectoryEntry.of(u);
+
         u.setName(dto.getName());
 
         Profile p = u.getProfile();
@@ -93,79 +140,214 @@ public class UserServiceImpl implements UserService {
         p.setPortfolioUrl(dto.getPortfolioUrl());
         p.setPictureUrl(dto.getPictureUrl());
         p.setInstitute(dto.getInstitute());
+        // a rename alone leaves the profile clean, so the copy is set here rather than on update
+        p.setUserName(u.getName());
 
         if (dto.getBatchYear() != null) {
-            Batch b = batchRepository.findByYear(dto.getBatchYear())
-                    .orElseGet(() -> {
-                        Batch newBatch = new Batch();
-                        newBatch.setYear(dto.getBatchYear());
-                        return batchRepository.save(newBatch);
-                    });
-            p.setBatch(b);
+            p.setBatch(referenceData.getOrCreateBatch(dto.getBatchYear()));
         }
 
         if (dto.getDegreeName() != null && !dto.getDegreeName().isBlank()) {
-            Degree d = degreeRepository.findFirstByName(dto.getDegreeName())
-                    .orElseGet(() -> degreeRepository.save(new Degree(null, dto.getDegreeName())));
+            Degree d = referenceData.getOrCreateDegree(dto.getDegreeName());
             p.setDegree(d);
             p.setDegreeName(d.getName());
         }
 
         userRepository.save(u);
+        long version = userRepository.findDirectoryVersion(u.getId());
 
-        return toDto(u);
+        skillService.syncUserSkills(u.getId(), dto.getSkills());
+        eventPublisher.publishEvent(new UserDirectoryChangedEvent(before, DirectoryEntry.of(u), version));
+
+        return UserDtoAssembler.toDto(u);
     }
 
     // ============================
     // SEARCH USERS
     // ============================
     @Override
-    public List<UserDto> searchUsers(String q, String degree, String institute, Integer batchYear, String role) {
+    public List<UserDto> searchUsers(String q, String degree, String institute, Integer batchYear, String role,
+                                     String skills, boolean matchAllSkills) {
 
-        List<User> users;
+        RoaringBitmap matches = structuredMatches(degree, institute, batchYear, role, skills, matchAllSkills);
+        if (matches.isEmpty()) return List.of();
 
         if (q != null && !q.isBlank()) {
-            users = userRepository.findByNameContainingIgnoreCase(q);
-        } else {
-            users = userRepository.findAll();
-        }
-
-        return users.stream().filter(u -> {
-            // Filter by role if provided
-            if (role != null && !role.isBlank()) {
-                String[] roles = role.split(",");
-                boolean matchesRole = false;
-                for (String r : roles) {
-                    if (u.getRole().toString().equalsIgnoreCase(r.trim())) {
-                        matchesRole = true;
-                        break;
-                    }
-                }
-                if (!matchesRole) return false;
+            // typo tolerant name match best first, then email and skill matches
+            return userDtoAssembler.loadInOrder(textMatches(q, matches).stream()
+                    .map(NameTrigramIndex.Match::userId)
+                    .collect(Collectors.toList()));
+        }
+
+        // Only hydrate the matching users, in id order like the old findAll()
+        List<UserDto> result = new ArrayList<>(matches.getCardinality());
+        List<Long> chunk = new ArrayList<>(HYDRATE_CHUNK);
+        for (int id : matches) {
+            chunk.add((long) id);
+            if (chunk.size() == HYDRATE_CHUNK) {
+                result.addAll(userDtoAssembler.loadInOrder(chunk));
+                chunk.clear();
             }
+        }
+        if (!chunk.isEmpty()) {
+            result.addAll(userDtoAssembler.loadInOrder(chunk));
+        }
+        return result;
+    }
 
-            Profile p = u.getProfile();
+    @Override
+    public RoaringBitmap matchingUserIds(String q, String degree, String institute, Integer batchYear, String role,
+                                         String skills, boolean matchAllSkills) {
+        RoaringBitmap matches = structuredMatches(degree, institute, batchYear, role, skills, matchAllSkills);
+        if (q == null || q.isBlank() || matches.isEmpty()) return matches;
+
+        RoaringBitmap named = new RoaringBitmap();
+        textMatches(q, matches).forEach(m -> named.add(Math.toIntExact(m.userId())));
+        return named;
+    }
 
-            if (degree != null && !degree.isBlank()) {
-                if (p == null || p.getDegree() == null ||
-                        !degree.equalsIgnoreCase(p.getDegree().getName()))
-                    return false;
-            }
+    /**
+     * Free text matches within `within`: names by trigram similarity, best first, then users
+     * whose email starts with q or who have a skill containing it, by id with score 0 so the
+     * (score, id) cursor pages through both. At most nameMaxResults in all.
+     */
+    private List<NameTrigramIndex.Match> textMatches(String q, RoaringBitmap within) {
+        List<NameTrigramIndex.Match> matches =
+                new ArrayList<>(nameIndex.search(q, nameSimilarityThreshold, nameMaxResults, within));
+        if (matches.size() >= nameMaxResults) return matches;
+
+        RoaringBitmap others = RoaringBitmap.and(skillIndex.usersWithSkillMatching(q), within);
+        String prefix = q.trim().toLowerCase(Locale.ROOT).replaceAll("[!%_]", "!$0");
+        for (Long id : userRepository.findIdsByEmailPrefix(prefix, PageRequest.of(0, nameMaxResults))) {
+            if (within.contains(Math.toIntExact(id))) others.add(Math.toIntExact(id));
+        }
+        for (NameTrigramIndex.Match m : matches) others.remove(Math.toIntExact(m.userId()));
 
-            if (institute != null && !institute.isBlank()) {
-                if (p == null || p.getInstitute() == null ||
-                        !p.getInstitute().equalsIgnoreCase(institute))
-                    return false;
-            }
+        for (int id : others) {
+            if (matches.size() >= nameMaxResults) break;
+            matches.add(new NameTrigramIndex.Match((long) id, 0.0));
+        }
+        return matches;
+    }
+
+    // Structured filters are answered by the in-memory bitmap indexes
+    private RoaringBitmap structuredMatches(String degree, String institute, Integer batchYear, String role,
+                                            String skills, boolean matchAllSkills) {
+        SkillFilter skillFilter = SkillFilter.parse(skills, matchAllSkills, skillIndex);
+        if (skillFilter != null && skillFilter.matchesNobody()) return new RoaringBitmap();
+
+        RoaringBitmap matches = directoryIndex.match(role, degree, institute, batchYear);
+        if (skillFilter != null) matches.and(skillFilter.users(skillIndex));
+        return matches;
+    }
+
+    // ============================
+    // SEARCH USERS (KEYSET PAGES)
+    // ============================
+    @Override
+    public UserSearchPage searchUsersPage(String q, String degree, String institute, Integer batchYear, String role,
+                                          String skills, boolean matchAllSkills, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor position = cursor != null && !cursor.isBlank() ? KeysetCursor.decode(cursor) : null;
+
+        SkillFilter skillFilter = SkillFilter.parse(skills, matchAllSkills, skillIndex);
+        if (skillFilter != null && skillFilter.matchesNobody()) {
+            return new UserSearchPage(List.of(), null, 0, pageSize, Map.of());
+        }
+
+        // facets and counts come straight from the bitmaps, first page only
+        RoaringBitmap base = directoryIndex.match(role, degree, institute, batchYear);
+        Map<String, Long> skillFacets = null;
+        if (position == null) {
+            skillFacets = skillFilter != null
+                    ? skillIndex.facetCounts(skillFilter.resolved().values(), base)
+                    : skillIndex.topSkills(base, TOP_SKILL_FACETS);
+        }
+        if (skillFilter != null) base.and(skillFilter.users(skillIndex));
+
+        if (q != null && !q.isBlank()) {
+            return rankedNamePage(q, base, position, pageSize, skillFacets);
+        }
 
-            if (batchYear != null) {
-                if (p == null || p.getBatch() == null ||
-                        !batchYear.equals(p.getBatch().getYear()))
-                    return false;
+        Specification<User> spec = UserSpecifications.directoryFilter(degree, institute, batchYear, role);
+        if (skillFilter != null) {
+            spec = spec.and(UserSpecifications.hasSkills(skillFilter.skillIds(), matchAllSkills));
+        }
+        // counted by the same predicate as the rows: the bitmaps normalize values differently
+        // from the SQL collation, so their cardinality could disagree with what is paged
+        long totalEstimate = position != null ? position.getTotalEstimate() : userRepository.count(spec);
+        if (position != null) {
+            spec = spec.and(UserSpecifications.after(position.getName(), position.getId()));
+        }
+
+        // one extra row tells us whether another page exists
+        List<User> rows = userRepository.findPageOrderByNameAndId(spec, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+
+        String nextCursor = null;
+        if (hasMore) {
+            User last = rows.get(rows.size() - 1);
+            nextCursor = KeysetCursor.byName(last.getName(), last.getId(), totalEstimate).encode();
+        }
+
+        List<UserDto> items = rows.stream().map(UserDtoAssembler::toDto).collect(Collectors.toList());
+        return new UserSearchPage(items, nextCursor, totalEstimate, pageSize, skillFacets);
+    }
+
+    // Free text queries are ranked by textMatches and paged on (score desc, id asc)
+    private UserSearchPage rankedNamePage(String q, RoaringBitmap within, KeysetCursor position,
+                                          int pageSize, Map<String, Long> skillFacets) {
+        List<NameTrigramIndex.Match> ranked = textMatches(q, within);
+
+        int from = 0;
+        if (position != null && position.getScore() != null) {
+            double score = position.getScore();
+            long id = position.getId();
+            while (from < ranked.size()) {
+                NameTrigramIndex.Match m = ranked.get(from);
+                if (m.score() < score || (m.score() == score && m.userId() > id)) break;
+                from++;
             }
+        }
+        int to = Math.min(from + pageSize, ranked.size());
+        List<NameTrigramIndex.Match> page = ranked.subList(from, to);
+
+        long totalEstimate = position != null ? position.getTotalEstimate() : ranked.size();
+        String nextCursor = null;
+        if (to < ranked.size()) {
+            NameTrigramIndex.Match last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.byScore(last.score(), last.userId(), totalEstimate).encode();
+        }
 
-            return true;
-        }).map(this::toDto).collect(Collectors.toList());
+        List<UserDto> items = userDtoAssembler.loadInOrder(page.stream()
+                .map(NameTrigramIndex.Match::userId)
+                .collect(Collectors.toList()));
+        return new UserSearchPage(items, nextCursor, totalEstimate, pageSize, skillFacets);
+    }
+
+    // Requested skills resolved against the skill dictionary
+    private record SkillFilter(int requested, Map<String, Integer> resolved, boolean matchAll) {
+
+        static SkillFilter parse(String skills, boolean matchAll, SkillIndex index) {
+            Set<String> names = new LinkedHashSet<>();
+            UserDirectoryIndex.splitValues(skills).forEach(s -> names.add(SkillTokenizer.normalize(s)));
+            if (names.isEmpty()) return null;
+            return new SkillFilter(names.size(), index.resolve(names), matchAll);
+        }
+
+        // an unknown skill can never be matched
+        boolean matchesNobody() {
+            return resolved.isEmpty() || (matchAll && resolved.size() < requested);
+        }
+
+        List<Long> skillIds() {
+            return resolved.values().stream().map(Integer::longValue).collect(Collectors.toList());
+        }
+
+        RoaringBitmap users(SkillIndex index) {
+            return matchAll ? index.usersWithAll(resolved.values()) : index.usersWithAny(resolved.values());
+        }
     }
 
     // ============================
@@ -173,56 +355,113 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public void sendConnectionRequest(Long senderId, Long receiverId) {
+        requireKnownUser(senderId, "Sender not found");
+        requireKnownUser(receiverId, "Receiver not found");
+
+        if (senderId.equals(receiverId)) {
+            throw new IllegalArgumentException("You cannot send a connection request to yourself");
+        }
 
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
+        // One row per pair: insert it, or take over a rejected one. Either statement is
+        // atomic on uk_connections_pair, so two users asking each other at once get one row.
+        Long low = Math.min(senderId, receiverId);
+        Long high = Math.max(senderId, receiverId);
+        LocalDateTime now = LocalDateTime.now();
+        boolean written = insertPending(senderId, receiverId, low, high, now)
+                || connectionRepository.reviveRejected(senderId, receiverId, low, high, now) == 1;
 
-        User receiver = userRepository.findById(receiverId)
-                .orElseThrow(() -> new ResourceNotFoundException("Receiver not found"));
+        Object[] row = connectionRepository.findRowByPair(low, high).stream().findFirst()
+                .orElseThrow(() -> new IllegalStateException("Connection request changed concurrently, please retry"));
 
-        if (sender.getId().equals(receiver.getId())) {
-            throw new IllegalArgumentException("You cannot send a connection request to yourself");
+        if (!written) {
+            if (row[3] == ConnectionRequest.Status.ACCEPTED) {
+                throw new IllegalArgumentException("You are already connected with this user");
+            }
+            if (senderId.equals(row[1])) {
+                throw new IllegalArgumentException("Connection request already sent");
+            }
+            throw new IllegalArgumentException("You already have a pending request from this user");
         }
 
-        connectionRepository.findConnectionBetweenUsers(sender, receiver)
-                .ifPresent(existing -> {
-                    switch (existing.getStatus()) {
-                        case PENDING:
-                            if (existing.getSender().equals(sender)) {
-                                throw new IllegalArgumentException("Connection request already sent");
-                            } else {
-                                throw new IllegalArgumentException("You already have a pending request from this user");
-                            }
-                        case ACCEPTED:
-                            throw new IllegalArgumentException("You are already connected with this user");
-                        case REJECTED:
-                            connectionRepository.delete(existing);
-                            break;
-                        default:
-                            connectionRepository.delete(existing);
-                    }
-                });
-
-        ConnectionRequest cr = new ConnectionRequest();
-        cr.setSender(sender);
-        cr.setReceiver(receiver);
-        cr.setStatus(ConnectionRequest.Status.PENDING);
-
-        connectionRepository.save(cr);
+        eventPublisher.publishEvent(new ConnectionChangedEvent(
+                ConnectionChangedEvent.Type.REQUESTED, (Long) row[0], senderId, receiverId));
+    }
+
+    // False when the pair already has a row. Plain JDBC, so the duplicate key doesn't mark the
+    // transaction rollback-only; any other failure propagates.
+    private boolean insertPending(Long senderId, Long receiverId, Long low, Long high, LocalDateTime now) {
+        try {
+            return jdbc.update("INSERT INTO connections (sender_id, receiver_id, pair_low_id, pair_high_id, status, created_at) " +
+                    "VALUES (?, ?, ?, ?, 'PENDING', ?)", senderId, receiverId, low, high, now) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
     }
 
     // ============================
     // RESPOND CONNECTION REQUEST
     // ============================
     @Override
-    public void respondConnectionRequest(Long requestId, boolean accept) {
-        ConnectionRequest cr = connectionRepository.findById(requestId)
+    public void respondConnectionRequest(Long receiverId, Long requestId, boolean accept) {
+        ConnectionRequest.Status status = accept ? ConnectionRequest.Status.ACCEPTED : ConnectionRequest.Status.REJECTED;
+
+        // only a pending request can be answered, only once and only by its receiver
+        int updated = connectionRepository.updateStatusIf(requestId, receiverId, ConnectionRequest.Status.PENDING, status);
+        Object[] row = connectionRepository.findRowById(requestId).stream()
+                .filter(r -> receiverId.equals(r[2]))
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Request not found"));
+        if (updated == 0) {
+            throw new IllegalArgumentException("This request has already been answered");
+        }
+
+        eventPublisher.publishEvent(new ConnectionChangedEvent(
+                accept ? ConnectionChangedEvent.Type.ACCEPTED : ConnectionChangedEvent.Type.REJECTED,
+                requestId, (Long) row[1], (Long) row[2]));
+    }
+
+    // ============================
+    // BULK RESPOND
+    // ============================
+    @Override
+    public Map<Long, String> respondConnectionRequests(Long receiverId, Collection<Long> requestIds, boolean accept) {
+        requireKnownUser(receiverId, "User not found");
+
+        List<Long> ids = requestIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        Map<Long, String> outcomes = new LinkedHashMap<>();
+        if (ids.isEmpty()) return outcomes;
 
-        cr.setStatus(accept ? ConnectionRequest.Status.ACCEPTED :
-                ConnectionRequest.Status.REJECTED);
+        ConnectionRequest.Status status = accept ? ConnectionRequest.Status.ACCEPTED : ConnectionRequest.Status.REJECTED;
+        ConnectionChangedEvent.Type type = accept ? ConnectionChangedEvent.Type.ACCEPTED : ConnectionChangedEvent.Type.REJECTED;
 
-        connectionRepository.save(cr);
+        // rows stay locked until commit, so the outcomes below are exactly what the UPDATE changes
+        Map<Long, Object[]> rows = new HashMap<>();
+        for (Object[] row : connectionRepository.lockRowsByIdIn(ids)) {
+            rows.put(((Number) row[0]).longValue(), row);
+        }
+
+        List<Long> answerable = new ArrayList<>();
+        List<ConnectionChangedEvent> changes = new ArrayList<>();
+        for (Long id : ids) {
+            Object[] row = rows.get(id);
+            if (row == null) {
+                outcomes.put(id, "NOT_FOUND");
+            } else if (row[2] == null || ((Number) row[2]).longValue() != receiverId) {
+                outcomes.put(id, "NOT_RECEIVER");
+            } else if (!ConnectionRequest.Status.PENDING.name().equals(row[3])) {
+                outcomes.put(id, "ALREADY_ANSWERED");
+            } else {
+                outcomes.put(id, status.name());
+                answerable.add(id);
+                changes.add(new ConnectionChangedEvent(type, id, ((Number) row[1]).longValue(), receiverId));
+            }
+        }
+
+        if (!answerable.isEmpty()) {
+            connectionRepository.updateStatusForReceiver(answerable, receiverId, ConnectionRequest.Status.PENDING, status);
+            eventPublisher.publishEvent(new ConnectionBatchChangedEvent(changes));
+        }
+        return outcomes;
     }
 
     // ============================
@@ -230,47 +469,31 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public List<?> getPendingRequests(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        return connectionRepository.findByReceiverAndStatus(user, ConnectionRequest.Status.PENDING)
-                .stream()
-                .map(cr -> {
-                    ConnectionRequestDto dto = new ConnectionRequestDto();
-                    dto.setId(cr.getId());
-                    dto.setSender(toDto(cr.getSender()));
-                    dto.setReceiver(toDto(cr.getReceiver()));
-                    dto.setStatus(cr.getStatus().toString());
-                    dto.setCreatedAt(cr.getCreatedAt() != null ? cr.getCreatedAt().toString() : null);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        requireKnownUser(userId, "User not found");
+        return toRequestDtos(connectionRepository.findRowsByReceiverAndStatus(userId, ConnectionRequest.Status.PENDING));
     }
 
+
     // ============================
     // GET ACTIVE CONNECTIONS
     // ============================
     @Override
     public List<UserDto> getActiveConnections(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        requireKnownUser(userId, "User not found");
 
-        // Get connections where user sent and was accepted
-        List<ConnectionRequest> sentAccepted = connectionRepository.findBySender(user).stream()
-                .filter(cr -> cr.getStatus() == ConnectionRequest.Status.ACCEPTED)
-                .collect(Collectors.toList());
-
-        // Get connections where user received and was accepted
-        List<ConnectionRequest> receivedAccepted = connectionRepository.findByReceiverAndStatus(user, ConnectionRequest.Status.ACCEPTED);
-
-        Set<Long> connectedUserIds = new HashSet<>();
-        sentAccepted.forEach(cr -> connectedUserIds.add(cr.getReceiver().getId()));
-        receivedAccepted.forEach(cr -> connectedUserIds.add(cr.getSender().getId()));
+        // neighbour ids come from the in-memory graph; only the cards are loaded
+        List<Long> ids = new ArrayList<>();
+        for (int id : connectionGraph.connectionsOf(userId)) {
+            ids.add((long) id);
+        }
+        return userDtoAssembler.loadInOrder(ids);
+    }
 
-        return connectedUserIds.stream()
-                .map(connectedUserId -> toDto(userRepository.findById(connectedUserId).orElse(null)))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    // Existence check against the directory index instead of a findById
+    private void requireKnownUser(Long userId, String message) {
+        if (directoryIndex.entryOf(userId) == null) {
+            throw new ResourceNotFoundException(message);
+        }
     }
 
     // ============================
@@ -278,14 +501,15 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public void disconnectUsers(Long userId1, Long userId2) {
-        User user1 = userRepository.findById(userId1)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        User user2 = userRepository.findById(userId2)
-                .orElseThrow(() -> new ResourceNotFoundException("Other user not found"));
-
-        // Delete connection in either direction
-        connectionRepository.findBySenderAndReceiver(user1, user2).ifPresent(connectionRepository::delete);
-        connectionRepository.findBySenderAndReceiver(user2, user1).ifPresent(connectionRepository::delete);
+        requireKnownUser(userId1, "User not found");
+        requireKnownUser(userId2, "Other user not found");
+
+        // Whatever row the pair has, in either direction; deleted by id so the event matches what was removed
+        connectionRepository.findRowByPair(Math.min(userId1, userId2), Math.max(userId1, userId2)).stream()
+                .findFirst()
+                .filter(row -> connectionRepository.deleteRowById((Long) row[0]) == 1)
+                .ifPresent(row -> eventPublisher.publishEvent(new ConnectionChangedEvent(
+                        ConnectionChangedEvent.Type.DISCONNECTED, (Long) row[0], (Long) row[1], (Long) row[2])));
     }
 
     // ============================
@@ -293,35 +517,53 @@ public class UserServiceImpl implements UserService {
     // ============================
     @Override
     public Map<String, Object> getConnectionStatus(Long userId, Long otherUserId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        User otherUser = userRepository.findById(otherUserId)
-                .orElseThrow(() -> new ResourceNotFoundException("Other user not found"));
+        requireKnownUser(userId, "User not found");
+        requireKnownUser(otherUserId, "Other user not found");
 
+        return statusOf(userId, otherUserId, connectionGraph.edgeBetween(userId, otherUserId));
+    }
+
+    // Statuses for a whole result page from one graph lookup; unknown ids are left out
+    @Override
+    public Map<Long, Map<String, Object>> getConnectionStatuses(Long userId, Collection<Long> otherUserIds) {
+        requireKnownUser(userId, "User not found");
+
+        List<Long> known = new ArrayList<>();
+        for (Long id : otherUserIds) {
+            if (id != null && directoryIndex.entryOf(id) != null) known.add(id);
+        }
+        Map<Long, ConnectionGraph.Edge> edges = connectionGraph.edgesBetween(userId, known);
+
+        Map<Long, Map<String, Object>> result = new LinkedHashMap<>();
+        for (Long otherUserId : known) {
+            result.put(otherUserId, statusOf(userId, otherUserId, Optional.ofNullable(edges.get(otherUserId))));
+        }
+        return result;
+    }
+
+    private Map<String, Object> statusOf(Long userId, Long otherUserId, Optional<ConnectionGraph.Edge> connection) {
         Map<String, Object> result = new HashMap<>();
         result.put("userId", userId);
         result.put("otherUserId", otherUserId);
 
-        Optional<ConnectionRequest> connection = connectionRepository.findConnectionBetweenUsers(user, otherUser);
-
         if (connection.isEmpty()) {
             result.put("status", "NONE");
             result.put("canConnect", true);
             result.put("requestId", null);
         } else {
-            ConnectionRequest cr = connection.get();
-            result.put("status", cr.getStatus().toString());
-            result.put("requestId", cr.getId());
+            ConnectionGraph.Edge cr = connection.get();
+            result.put("status", cr.status().toString());
+            result.put("requestId", cr.requestId());
             
             // Check if current user sent or received the request
-            boolean isSender = cr.getSender().getId().equals(userId);
+            boolean isSender = cr.senderId().equals(userId);
             result.put("isSender", isSender);
             
-            if (cr.getStatus() == ConnectionRequest.Status.PENDING) {
+            if (cr.status() == ConnectionRequest.Status.PENDING) {
                 result.put("canConnect", false);
                 result.put("canAccept", !isSender); // Only receiver can accept
                 result.put("canCancel", isSender);  // Only sender can cancel
-            } else if (cr.getStatus() == ConnectionRequest.Status.ACCEPTED) {
+            } else if (cr.status() == ConnectionRequest.Status.ACCEPTED) {
                 result.put("canConnect", false);
                 result.put("isConnected", true);
             } else {
@@ -333,59 +575,66 @@ public class UserServiceImpl implements UserService {
     }
 
     // ============================
-    // GET SENT REQUESTS
+    // MUTUAL CONNECTIONS
     // ============================
     @Override
-    public List<?> getSentRequests(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    public Map<String, Object> getMutualConnections(Long userId, Long otherUserId, int limit) {
+        requireKnownUser(userId, "User not found");
+        requireKnownUser(otherUserId, "Other user not found");
+
+        RoaringBitmap mutual = connectionGraph.mutualConnections(userId, otherUserId);
+        List<Long> firstPage = new ArrayList<>();
+        for (int id : mutual) {
+            if (firstPage.size() >= limit) break;
+            firstPage.add((long) id);
+        }
 
-        return connectionRepository.findBySender(user)
-                .stream()
-                .filter(cr -> cr.getStatus() == ConnectionRequest.Status.PENDING)
-                .map(cr -> {
-                    ConnectionRequestDto dto = new ConnectionRequestDto();
-                    dto.setId(cr.getId());
-                    dto.setSender(toDto(cr.getSender()));
-                    dto.setReceiver(toDto(cr.getReceiver()));
-                    dto.setStatus(cr.getStatus().toString());
-                    dto.setCreatedAt(cr.getCreatedAt() != null ? cr.getCreatedAt().toString() : null);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", otherUserId);
+        result.put("count", mutual.getCardinality());
+        result.put("users", firstPage.isEmpty() ? List.of() : userDtoAssembler.loadInOrder(firstPage));
+        return result;
     }
 
-    // ============================
-    // HELPER: Convert Entity → DTO
-    // ============================
-    private UserDto toDto(User u) {
-        if (u == null) {
-            return null;
-        }
-
-        UserDto d = new UserDto();
+    @Override
+    public Map<Long, Integer> getMutualConnectionCounts(Long userId, Collection<Long> otherUserIds) {
+        requireKnownUser(userId, "User not found");
 
-        d.setId(u.getId());
-        d.setName(u.getName());
-        d.setEmail(u.getEmail());
-        d.setRole(u.getRole().name());
+        List<Long> known = new ArrayList<>();
+        for (Long id : otherUserIds) {
+            if (id != null && directoryIndex.entryOf(id) != null) known.add(id);
+        }
+        return connectionGraph.mutualCounts(userId, known);
+    }
 
-        if (u.getProfile() != null) {
-            Profile p = u.getProfile();
-            d.setBio(p.getBio());
-            d.setHeadline(p.getHeadline());
-            d.setSkills(p.getSkills());
-            d.setLocation(p.getLocation());
-            d.setLinkedinUrl(p.getLinkedinUrl());
-            d.setGithubUrl(p.getGithubUrl());
-            d.setPortfolioUrl(p.getPortfolioUrl());
-            d.setPictureUrl(p.getPictureUrl());
-            d.setInstitute(p.getInstitute());
+    // ============================
+    // GET SENT REQUESTS
+    // ============================
+    @Override
+    public List<?> getSentRequests(Long userId) {
+        requireKnownUser(userId, "User not found");
+        return toRequestDtos(connectionRepository.findRowsBySenderAndStatus(userId, ConnectionRequest.Status.PENDING));
+    }
 
-            if (p.getBatch() != null) d.setBatchYear(p.getBatch().getYear());
-            if (p.getDegree() != null) d.setDegreeName(p.getDegree().getName());
+    // (id, senderId, receiverId, status, createdAt) rows → DTOs, with every user card loaded at once
+    private List<ConnectionRequestDto> toRequestDtos(List<Object[]> rows) {
+        Set<Long> userIds = new HashSet<>();
+        for (Object[] row : rows) {
+            userIds.add((Long) row[1]);
+            userIds.add((Long) row[2]);
         }
-
-        return d;
+        Map<Long, UserDto> users = userDtoAssembler.loadById(userIds);
+
+        List<ConnectionRequestDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ConnectionRequestDto dto = new ConnectionRequestDto();
+            dto.setId((Long) row[0]);
+            dto.setSender(users.get((Long) row[1]));
+            dto.setReceiver(users.get((Long) row[2]));
+            dto.setStatus(row[3].toString());
+            dto.setCreatedAt(row[4] != null ? row[4].toString() : null);
+            result.add(dto);
+        }
+        return result;
     }
 }
@@ -0,0 +1,13 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.Skill;
+import lombok.*;
+
+import java.util.List;
+
+// The user's complete skill set after a profile save
+@Getter @AllArgsConstructor
+public class UserSkillsChangedEvent {
+    private final Long userId;
+    private final List<Skill> skills;
+}
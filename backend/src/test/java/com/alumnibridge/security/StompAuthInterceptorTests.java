@@ -0,0 +1,105 @@
+package com.alumnibridge.security;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Which STOMP frames get through: CONNECT needs a valid token, then own queues and /app/ only
+class StompAuthInterceptorTests {
+
+    private static final StompPrincipal ASHA = new StompPrincipal(5L, "Asha", User.Role.ALUMNI);
+
+    private StompAuthInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        JwtTokenProvider tokens = mock(JwtTokenProvider.class);
+        when(tokens.validateToken("good")).thenReturn(true);
+        when(tokens.getUsernameFromJWT("good")).thenReturn("asha@example.com");
+
+        User asha = new User();
+        asha.setId(ASHA.id());
+        asha.setName(ASHA.displayName());
+        asha.setRole(ASHA.role());
+        UserRepository users = mock(UserRepository.class);
+        when(users.findByEmail("asha@example.com")).thenReturn(Optional.of(asha));
+
+        interceptor = new StompAuthInterceptor(tokens, users);
+    }
+
+    @Test
+    void connectWithValidTokenBindsTheUser() {
+        Message<?> connect = connect("Bearer good");
+        interceptor.preSend(connect, null);
+
+        Principal user = StompHeaderAccessor.getUser(connect.getHeaders());
+        assertEquals(ASHA, user);
+    }
+
+    @Test
+    void connectWithBadOrMissingTokenIsRejected() {
+        assertThrows(MessagingException.class, () -> interceptor.preSend(connect("Bearer forged"), null));
+        assertThrows(MessagingException.class, () -> interceptor.preSend(connect("good"), null));
+        assertThrows(MessagingException.class, () -> interceptor.preSend(connect(null), null));
+    }
+
+    @Test
+    void subscribeOnlyToOwnQueues() {
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/messages/5", ASHA), null);
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/receipts/5", ASHA), null);
+
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/messages/6", ASHA), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/other/5", ASHA), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/messages/5/x", ASHA), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/queue/messages/5", null), null));
+    }
+
+    @Test
+    void sendOnlyToApplicationDestinations() {
+        interceptor.preSend(frame(StompCommand.SEND, "/app/chat.send", ASHA), null);
+
+        // straight to the broker would reach another user's queue without the handler's checks
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/queue/messages/6", ASHA), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/topic/anything", ASHA), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/app/chat.send", null), null));
+    }
+
+    private static Message<?> connect(String authorization) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        if (authorization != null) accessor.setNativeHeader("Authorization", authorization);
+        return build(accessor);
+    }
+
+    private static Message<?> frame(StompCommand command, String destination, StompPrincipal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        return build(accessor);
+    }
+
+    private static Message<?> build(StompHeaderAccessor accessor) {
+        accessor.setSessionId("s1");
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,70 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.Degree;
+import com.alumnibridge.repository.DegreeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The import commits chunk by chunk on its own thread, so rows are cleaned up by hand
+@SpringBootTest
+class AlumniImportServiceTests {
+
+    private static final String CSV = "name,email,password,degreeName,skills\n" +
+            "Asha,import-asha@example.com,secret1,Import Degree,\"Java, Spring\"\n" +
+            "Ravi,import-ravi@example.com,secret2,Astrology,\n" +
+            "Meera,import-meera@example.com,secret3,,Java\n";
+
+    @Autowired private AlumniImportService importService;
+    @Autowired private DegreeRepository degreeRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    private Degree degree;
+
+    @BeforeEach
+    void setUp() {
+        degree = degreeRepository.save(new Degree(null, "Import Degree"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        String users = "SELECT id FROM users WHERE email LIKE 'import-%@example.com'";
+        jdbc.update("DELETE FROM user_skills WHERE user_id IN (" + users + ")");
+        jdbc.update("DELETE FROM profiles WHERE user_id IN (" + users + ")");
+        jdbc.update("DELETE FROM users WHERE email LIKE 'import-%@example.com'");
+        degreeRepository.delete(degree);
+    }
+
+    @Test
+    void unknownDegreeIsReportedAndSkillsAreWritten() throws Exception {
+        ImportJob job = importService.start(new MockMultipartFile("file", "alumni.csv", "text/csv",
+                CSV.getBytes(StandardCharsets.UTF_8)), "csv");
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!job.isDone() && System.currentTimeMillis() < deadline) Thread.sleep(50);
+
+        Map<String, Object> result = job.snapshot();
+        assertEquals("COMPLETED", result.get("status"));
+        assertEquals(2L, result.get("imported"));
+        assertEquals(1L, result.get("rejected"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertEquals("import-ravi@example.com", errors.get(0).get("email"));
+        assertEquals("Unknown degree: Astrology", errors.get(0).get("error"));
+
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM degrees WHERE name = 'Astrology'", Integer.class));
+        assertEquals(degree.getId(), jdbc.queryForObject("SELECT p.degree_id FROM profiles p JOIN users u ON u.id = p.user_id " +
+                "WHERE u.email = 'import-asha@example.com'", Long.class));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM user_skills us JOIN users u ON u.id = us.user_id " +
+                "WHERE u.email LIKE 'import-%@example.com'", Integer.class));
+    }
+}
@@ -0,0 +1,68 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.BatchMemberDto;
+import com.alumnibridge.entity.Batch;
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.BatchRepository;
+import com.alumnibridge.repository.ProfileRepository;
+import com.alumnibridge.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Roster pages follow (name, id) through the copy of the name kept on profiles
+@SpringBootTest
+@Transactional
+class BatchRosterTests {
+
+    @Autowired private ProfileRepository profileRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BatchRepository batchRepository;
+    @Autowired private EntityManager em;
+
+    private Batch batch;
+
+    @BeforeEach
+    void setUp() {
+        batch = batchRepository.save(new Batch(null, 1987, null));
+        for (String name : List.of("Meera", "Asha", "Zoya", "Asha")) member(name);
+        member("Other batch").getProfile().setBatch(null);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pagesInNameAndIdOrder() {
+        List<BatchMemberDto> first = profileRepository.findBatchMembersAfter(batch.getId(), "", 0L, PageRequest.of(0, 3));
+        assertEquals(List.of("Asha", "Asha", "Meera"), first.stream().map(BatchMemberDto::getName).toList());
+        assertTrue(first.get(0).getId() < first.get(1).getId());
+
+        BatchMemberDto last = first.get(1);
+        List<BatchMemberDto> next = profileRepository.findBatchMembersAfter(batch.getId(), last.getName(), last.getId(),
+                PageRequest.of(0, 3));
+        assertEquals(List.of("Meera", "Zoya"), next.stream().map(BatchMemberDto::getName).toList());
+    }
+
+    private User member(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name.replace(' ', '-').toLowerCase() + "-" + System.nanoTime() + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+
+        Profile p = new Profile();
+        p.setUser(u);
+        p.setBatch(batch);
+        u.setProfile(p);
+        return userRepository.save(u);
+    }
+}
@@ -0,0 +1,116 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Up-to-date clients get nothing (304); others get what changed, or everything on a new epoch
+@SpringBootTest
+@Transactional
+class ChatSyncServiceTests {
+
+    private static final int LIMIT = 100;
+
+    @Autowired private ChatSyncService chatSync;
+    @Autowired private MessageWriteBehind writeBehind;
+    @Autowired private UserRepository userRepository;
+
+    private Long asha;
+    private Long ravi;
+    private Long meera;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        asha = user("sync-asha").getId();
+        ravi = user("sync-ravi").getId();
+        meera = user("sync-meera").getId();
+        writeBehind.write(List.of(message(100, ravi, asha), message(200, meera, asha)));
+    }
+
+    @Test
+    void firstSyncIsFullAndRepeatingItIsNotModified() {
+        Map<String, Object> full = chatSync.sync(asha, null, 0, null, LIMIT);
+        assertEquals(true, full.get("full"));
+        assertEquals(List.of(meera, ravi), partners(full));
+        assertTrue(messages(full).isEmpty());
+        assertEquals(200L, full.get("nextAfter"));
+
+        assertNull(chatSync.sync(asha, epoch(full), version(full), 200L, LIMIT));
+    }
+
+    @Test
+    void deltaCarriesNewMessagesAndOnlyTheChangedConversation() throws InterruptedException {
+        Map<String, Object> full = chatSync.sync(asha, null, 0, null, LIMIT);
+
+        writeBehind.write(List.of(message(300, ravi, asha)));
+
+        Map<String, Object> delta = chatSync.sync(asha, epoch(full), version(full), 200L, LIMIT);
+        assertEquals(false, delta.get("full"));
+        assertEquals(List.of(ravi), partners(delta));
+        assertEquals(List.of(300L), messages(delta).stream().map(m -> (Long) m.get("id")).toList());
+        assertEquals(300L, delta.get("nextAfter"));
+
+        assertNull(chatSync.sync(asha, epoch(delta), version(delta), 300L, LIMIT));
+    }
+
+    @Test
+    void otherUsersChangesLeaveTheClientCurrent() throws InterruptedException {
+        Map<String, Object> full = chatSync.sync(asha, null, 0, null, LIMIT);
+
+        writeBehind.write(List.of(message(300, ravi, meera)));
+
+        assertNull(chatSync.sync(asha, epoch(full), version(full), 200L, LIMIT));
+    }
+
+    @Test
+    void unknownEpochGetsAFullSync() {
+        Map<String, Object> full = chatSync.sync(asha, null, 0, null, LIMIT);
+
+        Map<String, Object> again = chatSync.sync(asha, epoch(full) + 1, version(full), 200L, LIMIT);
+        assertEquals(true, again.get("full"));
+        assertEquals(List.of(meera, ravi), partners(again));
+    }
+
+    private static Long epoch(Map<String, Object> sync) {
+        return (Long) sync.get("epoch");
+    }
+
+    private static long version(Map<String, Object> sync) {
+        return (Long) sync.get("version");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> messages(Map<String, Object> sync) {
+        return (List<Map<String, Object>>) sync.get("messages");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> partners(Map<String, Object> sync) {
+        return ((List<Map<String, Object>>) sync.get("conversations")).stream()
+                .map(c -> (Long) c.get("userId")).toList();
+    }
+
+    private static MessageWriteBehind.QueuedMessage message(long id, Long sender, Long receiver) {
+        return new MessageWriteBehind.QueuedMessage(id, sender, receiver, "message " + id, false, null,
+                LocalDateTime.now().plusSeconds(id));
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+        return userRepository.saveAndFlush(u);
+    }
+}
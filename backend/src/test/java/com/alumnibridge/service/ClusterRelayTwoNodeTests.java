@@ -0,0 +1,139 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.AlumniBridgeApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two instances on localhost sharing one database: a message sent on A for a user
+// connected to B reaches B's broker through the outbox relay
+class ClusterRelayTwoNodeTests {
+
+    private static final String SHARED_DB =
+            "jdbc:h2:mem:relay_nodes;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR;DB_CLOSE_DELAY=-1";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static final BlockingQueue<Message<?>> deliveredOnB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    static void start() throws InterruptedException {
+        nodeA = node("node-a", "create-drop");
+        nodeB = node("node-b", "none");
+
+        nodeB.getBean("brokerChannel", SubscribableChannel.class).subscribe(m -> {
+            String destination = SimpMessageHeaderAccessor.getDestination(m.getHeaders());
+            if (destination != null && destination.startsWith("/queue/messages/")) deliveredOnB.add(m);
+        });
+
+        ClusterRelay relayA = nodeA.getBean(ClusterRelay.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!relayA.hasPeers() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(relayA.hasPeers(), "node-a never saw node-b's heartbeat");
+    }
+
+    @AfterAll
+    static void stop() {
+        if (nodeB != null) nodeB.close();
+        if (nodeA != null) nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext node(String nodeId, String ddl) {
+        return new SpringApplicationBuilder(AlumniBridgeApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + SHARED_DB,
+                "--spring.jpa.hibernate.ddl-auto=" + ddl,
+                "--app.relay.transport=outbox",
+                "--app.relay.node-id=" + nodeId,
+                "--app.relay.heartbeat-millis=200");
+    }
+
+    @Test
+    void messageForUserOnOtherNodeIsDelivered() throws InterruptedException {
+        nodeB.getBean(StompSessionRegistry.class).register("b-session-42", 42L);
+        MeterRegistry metricsA = nodeA.getBean(MeterRegistry.class);
+        MeterRegistry metricsB = nodeB.getBean(MeterRegistry.class);
+        double publishedBefore = metricsA.get("chat.relay.fanout")
+                .tag("node", "node-a").tag("path", "published").counter().count();
+        long deliveredBefore = metricsB.get("chat.relay.delivery.latency").tag("node", "node-b").timer().count();
+
+        nodeA.getBean(UserQueueSender.class).sendToUser(42L, "/queue/messages/42",
+                Map.of("id", 7, "senderId", 1, "content", "hello from a"));
+
+        Message<?> m = deliveredOnB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(m, "message never reached node-b");
+        assertEquals("/queue/messages/42", SimpMessageHeaderAccessor.getDestination(m.getHeaders()));
+        assertTrue(new String((byte[]) m.getPayload(), StandardCharsets.UTF_8).contains("hello from a"));
+
+        assertEquals(deliveredBefore + 1, metricsB.get("chat.relay.delivery.latency").tag("node", "node-b").timer().count());
+        assertEquals(publishedBefore + 1, metricsA.get("chat.relay.fanout")
+                .tag("node", "node-a").tag("path", "published").counter().count());
+    }
+
+    @Test
+    void connectionAcceptedOnOneNodeReachesTheOthersGraph() throws InterruptedException {
+        ConnectionGraph graphB = nodeB.getBean(ConnectionGraph.class);
+        assertFalse(graphB.isConnected(501L, 502L));
+
+        nodeA.publishEvent(
+                new ConnectionChangedEvent(ConnectionChangedEvent.Type.ACCEPTED, 9001L, 501L, 502L));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!graphB.isConnected(501L, 502L) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(graphB.isConnected(501L, 502L));
+        assertTrue(nodeA.getBean(ConnectionGraph.class).isConnected(501L, 502L));
+    }
+
+    @Test
+    void messageIdsFollowTimeAcrossNodes() throws InterruptedException {
+        MessageIdGenerator idsA = nodeA.getBean(MessageIdGenerator.class);
+        MessageIdGenerator idsB = nodeB.getBean(MessageIdGenerator.class);
+
+        long first = idsA.next();
+        Thread.sleep(5);
+        long second = idsB.next();
+        Thread.sleep(5);
+        long third = idsA.next();
+
+        assertTrue(first < second && second < third);
+        // different leased slots, so the nodes can never hand out the same id
+        assertNotEquals((first >> 8) & 0xF, (second >> 8) & 0xF);
+        assertTrue(third < (1L << 53));
+    }
+
+    @Test
+    void messageForUserNotOnNodeIsSkipped() throws InterruptedException {
+        MeterRegistry metricsB = nodeB.getBean(MeterRegistry.class);
+        double skippedBefore = metricsB.get("chat.relay.fanout")
+                .tag("node", "node-b").tag("path", "skipped").counter().count();
+
+        nodeA.getBean(UserQueueSender.class).sendToUser(99L, "/queue/messages/99", Map.of("content", "nobody here"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (metricsB.get("chat.relay.fanout").tag("node", "node-b").tag("path", "skipped").counter().count() == skippedBefore
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(skippedBefore + 1, metricsB.get("chat.relay.fanout")
+                .tag("node", "node-b").tag("path", "skipped").counter().count());
+        assertNull(deliveredOnB.poll(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,90 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.ConnectionRequest;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.exception.ResourceNotFoundException;
+import com.alumnibridge.repository.ConnectionRequestRepository;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: each call commits on its own, as it does behind the controller
+@SpringBootTest
+class ConnectionRequestTests {
+
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ConnectionRequestRepository connectionRepository;
+    @Autowired private UserDirectoryIndex directoryIndex;
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("request-alice");
+        bob = user("request-bob");
+        directoryIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionRepository.findByPairLowIdAndPairHighId(low(), high()).ifPresent(connectionRepository::delete);
+        userRepository.deleteAll(List.of(alice, bob));
+        directoryIndex.rebuild();
+    }
+
+    @Test
+    void repeatedRequestIsRejectedAndLeavesOneRow() {
+        userService.sendConnectionRequest(alice.getId(), bob.getId());
+
+        IllegalArgumentException sent = assertThrows(IllegalArgumentException.class,
+                () -> userService.sendConnectionRequest(alice.getId(), bob.getId()));
+        assertEquals("Connection request already sent", sent.getMessage());
+
+        IllegalArgumentException incoming = assertThrows(IllegalArgumentException.class,
+                () -> userService.sendConnectionRequest(bob.getId(), alice.getId()));
+        assertEquals("You already have a pending request from this user", incoming.getMessage());
+
+        ConnectionRequest row = connectionRepository.findByPairLowIdAndPairHighId(low(), high()).orElseThrow();
+        assertEquals(alice.getId(), row.getSender().getId());
+        assertEquals(ConnectionRequest.Status.PENDING, row.getStatus());
+    }
+
+    @Test
+    void onlyTheReceiverCanAnswer() {
+        userService.sendConnectionRequest(alice.getId(), bob.getId());
+        Long requestId = connectionRepository.findByPairLowIdAndPairHighId(low(), high()).orElseThrow().getId();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.respondConnectionRequest(alice.getId(), requestId, true));
+        assertEquals(ConnectionRequest.Status.PENDING, connectionRepository.findById(requestId).orElseThrow().getStatus());
+
+        userService.respondConnectionRequest(bob.getId(), requestId, true);
+        assertEquals(ConnectionRequest.Status.ACCEPTED, connectionRepository.findById(requestId).orElseThrow().getStatus());
+    }
+
+    private Long low() {
+        return Math.min(alice.getId(), bob.getId());
+    }
+
+    private Long high() {
+        return Math.max(alice.getId(), bob.getId());
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+        return userRepository.save(u);
+    }
+}
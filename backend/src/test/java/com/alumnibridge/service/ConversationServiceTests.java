@@ -0,0 +1,91 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// History pages walk back with nextBefore and catch up with nextAfter, one conversation only
+@SpringBootTest
+@Transactional
+class ConversationServiceTests {
+
+    @Autowired private ConversationService conversationService;
+    @Autowired private MessageWriteBehind writeBehind;
+    @Autowired private UserRepository userRepository;
+
+    private Long asha;
+    private Long ravi;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        asha = user("history-asha").getId();
+        ravi = user("history-ravi").getId();
+        Long other = user("history-other").getId();
+        writeBehind.write(List.of(message(100, asha, ravi), message(200, ravi, asha), message(250, asha, other),
+                message(300, asha, ravi), message(400, ravi, asha), message(500, asha, ravi)));
+    }
+
+    @Test
+    void olderPagesFollowNextBefore() {
+        Map<String, Object> latest = conversationService.page(ravi, asha, null, null, 2);
+        assertEquals(List.of(400L, 500L), ids(latest));
+        assertEquals(true, latest.get("hasMore"));
+        assertEquals(400L, latest.get("nextBefore"));
+        assertEquals(500L, latest.get("newestId"));
+
+        Map<String, Object> older = conversationService.page(ravi, asha, 400L, null, 2);
+        assertEquals(List.of(200L, 300L), ids(older));
+        assertEquals(200L, older.get("nextBefore"));
+
+        Map<String, Object> oldest = conversationService.page(ravi, asha, 200L, null, 2);
+        assertEquals(List.of(100L), ids(oldest));
+        assertEquals(false, oldest.get("hasMore"));
+        assertNull(oldest.get("nextBefore"));
+    }
+
+    @Test
+    void catchUpFollowsNextAfter() {
+        Map<String, Object> first = conversationService.page(asha, ravi, null, 200L, 2);
+        assertEquals(List.of(300L, 400L), ids(first));
+        assertEquals(true, first.get("hasMore"));
+        assertNull(first.get("nextBefore"));
+        assertEquals(400L, first.get("nextAfter"));
+
+        Map<String, Object> rest = conversationService.page(asha, ravi, null, 400L, 2);
+        assertEquals(List.of(500L), ids(rest));
+        assertEquals(false, rest.get("hasMore"));
+        assertEquals(500L, rest.get("nextAfter"));
+
+        Map<String, Object> nothingNew = conversationService.page(asha, ravi, null, 500L, 2);
+        assertTrue(ids(nothingNew).isEmpty());
+        assertEquals(500L, nothingNew.get("nextAfter"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> ids(Map<String, Object> page) {
+        return ((List<Map<String, Object>>) page.get("messages")).stream().map(m -> (Long) m.get("id")).toList();
+    }
+
+    private static MessageWriteBehind.QueuedMessage message(long id, Long sender, Long receiver) {
+        return new MessageWriteBehind.QueuedMessage(id, sender, receiver, "message " + id, false, null, LocalDateTime.now());
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+        return userRepository.saveAndFlush(u);
+    }
+}
@@ -0,0 +1,61 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Only the requested ids are written, in id order, whatever lies between them
+@SpringBootTest
+@Transactional
+class DirectoryExportServiceTests {
+
+    @Autowired private DirectoryExportService exportService;
+    @Autowired private UserRepository userRepository;
+
+    @Test
+    void exportsOnlyTheRequestedUsers() throws Exception {
+        User first = user("export-first");
+        User skipped = user("export-skipped");
+        User last = user("export-last");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(RoaringBitmap.bitmapOf(Math.toIntExact(last.getId()), Math.toIntExact(first.getId())), "csv", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,name,email"));
+        assertTrue(lines[1].startsWith(first.getId() + ",export-first,"));
+        assertTrue(lines[2].startsWith(last.getId() + ",export-last,"));
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains(skipped.getName()));
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerUser() throws Exception {
+        User u = user("export-json");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(RoaringBitmap.bitmapOf(Math.toIntExact(u.getId())), "ndjson", out);
+
+        String json = out.toString(StandardCharsets.UTF_8).trim();
+        assertTrue(json.startsWith("{\"id\":" + u.getId() + ",\"name\":\"export-json\""));
+        assertTrue(json.contains("\"batchYear\":null"));
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+        return userRepository.saveAndFlush(u);
+    }
+}
@@ -0,0 +1,85 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import com.alumnibridge.service.UserDirectoryIndex.Dimension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A delta that arrives during a reconcile is replayed only if the snapshot didn't see its change
+class DirectoryFacetCountersTests {
+
+    private static final long USER = 7L;
+
+    private UserRepository users;
+    private DirectoryFacetCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        users = mock(UserRepository.class);
+        counters = new DirectoryFacetCounters(users, mock(PlatformTransactionManager.class));
+        when(users.countByRoleGrouped()).thenReturn(List.of());
+        when(users.countByDegreeGrouped()).thenReturn(List.of());
+        when(users.countByBatchYearGrouped()).thenReturn(List.<Object[]>of(new Object[]{2015, 1L}));
+    }
+
+    @Test
+    void changeAlreadyInSnapshotIsNotCountedTwice() {
+        // the move to IIT committed before the counts were read; its event lands mid-reconcile
+        arrivesDuringReconcile(moveToIit(3), List.<Object[]>of(new Object[]{"IIT", 1L}));
+        when(users.findDirectoryVersions(anyCollection())).thenReturn(List.<Object[]>of(new Object[]{USER, 3L}));
+
+        counters.reconcile();
+
+        assertEquals(1, counters.count(Dimension.INSTITUTE, "IIT"));
+        assertEquals(0, counters.count(Dimension.INSTITUTE, "NIT"));
+    }
+
+    @Test
+    void changeAfterSnapshotIsReplayed() {
+        // the counts still show the old institute: the change committed after they were read
+        arrivesDuringReconcile(moveToIit(3), List.<Object[]>of(new Object[]{"NIT", 1L}));
+        when(users.findDirectoryVersions(anyCollection())).thenReturn(List.<Object[]>of(new Object[]{USER, 2L}));
+
+        counters.reconcile();
+
+        assertEquals(1, counters.count(Dimension.INSTITUTE, "IIT"));
+        assertEquals(0, counters.count(Dimension.INSTITUTE, "NIT"));
+    }
+
+    @Test
+    void newUserMissingFromSnapshotIsReplayed() {
+        UserDirectoryChangedEvent created = new UserDirectoryChangedEvent(null, entry("IIT"));
+        arrivesDuringReconcile(created, List.of());
+        when(users.findDirectoryVersions(anyCollection())).thenReturn(List.of());
+
+        counters.reconcile();
+
+        assertEquals(1, counters.count(Dimension.INSTITUTE, "IIT"));
+    }
+
+    private void arrivesDuringReconcile(UserDirectoryChangedEvent event, List<Object[]> instituteCounts) {
+        when(users.countByInstituteGrouped()).thenAnswer(invocation -> {
+            counters.onDirectoryChanged(event);
+            return new ArrayList<>(instituteCounts);
+        });
+    }
+
+    private static UserDirectoryChangedEvent moveToIit(long version) {
+        return new UserDirectoryChangedEvent(entry("NIT"), entry("IIT"), version);
+    }
+
+    private static DirectoryEntry entry(String institute) {
+        return new DirectoryEntry(USER, "Asha", User.Role.ALUMNI, institute, 2015, null);
+    }
+}
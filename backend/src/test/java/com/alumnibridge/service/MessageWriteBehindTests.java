@@ -0,0 +1,91 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// conversation_summary must end up the same whatever order a batch carries its ids in
+@SpringBootTest
+@Transactional
+class MessageWriteBehindTests {
+
+    @Autowired private MessageWriteBehind writeBehind;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbc;
+
+    private Long low;
+    private Long high;
+
+    @BeforeEach
+    void setUp() {
+        low = user("writer-low").getId();
+        high = user("writer-high").getId();
+    }
+
+    @Test
+    void outOfOrderBatchKeepsTheLatestMessage() throws InterruptedException {
+        writeBehind.write(List.of(message(300, low, high), message(100, high, low), message(200, low, high)));
+
+        Map<String, Object> row = summary();
+        assertEquals(300L, ((Number) row.get("last_message_id")).longValue());
+        assertEquals("message 300", row.get("preview"));
+        assertEquals(low, ((Number) row.get("last_sender_id")).longValue());
+        assertEquals(1, ((Number) row.get("unread_low")).intValue());
+        assertEquals(2, ((Number) row.get("unread_high")).intValue());
+    }
+
+    @Test
+    void olderMessageCountsAsUnreadButIsNotTheLatest() throws InterruptedException {
+        writeBehind.write(List.of(message(300, low, high)));
+        writeBehind.write(List.of(message(250, high, low)));
+
+        Map<String, Object> row = summary();
+        assertEquals(300L, ((Number) row.get("last_message_id")).longValue());
+        assertEquals("message 300", row.get("preview"));
+        assertEquals(low, ((Number) row.get("last_sender_id")).longValue());
+        assertEquals(1, ((Number) row.get("unread_low")).intValue());
+        assertEquals(1, ((Number) row.get("unread_high")).intValue());
+    }
+
+    @Test
+    void messagesAtOrBelowTheReadMarkAreNotUnread() throws InterruptedException {
+        writeBehind.write(List.of(message(300, low, high)));
+        jdbc.update("UPDATE conversation_summary SET read_high_id = 300, unread_high = 0 " +
+                "WHERE pair_low_id = ? AND pair_high_id = ?", low, high);
+
+        writeBehind.write(List.of(message(400, low, high), message(250, low, high), message(350, low, high)));
+
+        Map<String, Object> row = summary();
+        assertEquals(400L, ((Number) row.get("last_message_id")).longValue());
+        assertEquals(2, ((Number) row.get("unread_high")).intValue());
+        assertEquals(0, ((Number) row.get("unread_low")).intValue());
+    }
+
+    private Map<String, Object> summary() {
+        return jdbc.queryForMap("SELECT * FROM conversation_summary WHERE pair_low_id = ? AND pair_high_id = ?", low, high);
+    }
+
+    private static MessageWriteBehind.QueuedMessage message(long id, Long sender, Long receiver) {
+        return new MessageWriteBehind.QueuedMessage(id, sender, receiver, "message " + id, false, null, LocalDateTime.now());
+    }
+
+    private User user(String name) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+        return userRepository.saveAndFlush(u);
+    }
+}
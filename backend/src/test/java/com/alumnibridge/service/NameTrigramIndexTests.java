@@ -0,0 +1,78 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.DirectoryEntry;
+import com.alumnibridge.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Ranking and thresholds of the in-memory name index; no database involved
+class NameTrigramIndexTests {
+
+    private static final double THRESHOLD = 0.5;
+
+    private NameTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NameTrigramIndex(null);
+        add(1, "Alexandra Albertson");
+        add(2, "Al");
+        add(3, "Shreya Sharma");
+        add(4, "Sharma");
+        add(5, "Alan Turing");
+        add(6, "Priya Nair");
+    }
+
+    @Test
+    void closerLengthRanksFirstAtEqualCoverage() {
+        assertEquals(List.of(2L, 5L, 1L), ids(index.search("al", THRESHOLD, 10, null)));
+        assertEquals(List.of(4L, 3L), ids(index.search("sharma", THRESHOLD, 10, null)));
+    }
+
+    @Test
+    void partialAndMisspelledQueriesMatch() {
+        assertEquals(List.of(4L, 3L), ids(index.search("Sha", THRESHOLD, 10, null)));
+        assertEquals(3L, ids(index.search("Shrea Sharma", THRESHOLD, 10, null)).get(0));
+    }
+
+    @Test
+    void belowThresholdIsLeftOut() {
+        assertTrue(index.search("Zygmunt", THRESHOLD, 10, null).isEmpty());
+        assertEquals(List.of(6L), ids(index.search("Priya", 0.9, 10, null)));
+        assertTrue(index.search("Pryia", 0.9, 10, null).isEmpty());
+    }
+
+    @Test
+    void shortQueriesMatchWordPrefixesOnly() {
+        assertEquals(List.of(2L, 5L, 1L), ids(index.search("a", THRESHOLD, 10, null)));
+        assertEquals(List.of(6L), ids(index.search("n", THRESHOLD, 10, null)));
+        assertTrue(index.search("xq", THRESHOLD, 10, null).isEmpty());
+    }
+
+    @Test
+    void limitAndRestrictionApply() {
+        assertEquals(List.of(2L), ids(index.search("al", THRESHOLD, 1, null)));
+        assertEquals(List.of(5L, 1L), ids(index.search("al", THRESHOLD, 10, RoaringBitmap.bitmapOf(1, 5))));
+    }
+
+    @Test
+    void renameMovesTheUser() {
+        add(2, "Zoe");
+        assertEquals(List.of(5L, 1L), ids(index.search("al", THRESHOLD, 10, null)));
+        assertEquals(List.of(2L), ids(index.search("zoe", THRESHOLD, 10, null)));
+    }
+
+    private void add(long id, String name) {
+        index.onDirectoryChanged(new UserDirectoryChangedEvent(null,
+                new DirectoryEntry(id, name, User.Role.ALUMNI, null, null, null)));
+    }
+
+    private static List<Long> ids(List<NameTrigramIndex.Match> matches) {
+        return matches.stream().map(NameTrigramIndex.Match::userId).toList();
+    }
+}
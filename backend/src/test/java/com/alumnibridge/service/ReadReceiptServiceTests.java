@@ -0,0 +1,95 @@
+package com.alumnibridge.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Read marks stay within the conversation and only a mark that moved is announced
+@SpringBootTest
+@Transactional
+class ReadReceiptServiceTests {
+
+    private static final long LOW = 9101L;
+    private static final long HIGH = 9102L;
+    private static final long LAST = 500L;
+
+    @Autowired private ReadReceiptService readReceipts;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired @Qualifier("brokerChannel") private SubscribableChannel brokerChannel;
+
+    private final List<Message<?>> receipts = new CopyOnWriteArrayList<>();
+    private final MessageHandler collector = m -> {
+        String destination = SimpMessageHeaderAccessor.getDestination(m.getHeaders());
+        if (destination != null && destination.startsWith("/queue/receipts/")) receipts.add(m);
+    };
+
+    @BeforeEach
+    void setUp() {
+        jdbc.update("INSERT INTO conversation_summary (pair_low_id, pair_high_id, last_message_id, last_sender_id, " +
+                "read_low_id, read_high_id, unread_low, unread_high) VALUES (?, ?, ?, ?, 0, 0, 3, 0)",
+                LOW, HIGH, LAST, HIGH);
+        brokerChannel.subscribe(collector);
+    }
+
+    @AfterEach
+    void tearDown() {
+        brokerChannel.unsubscribe(collector);
+    }
+
+    @Test
+    void ackPastTheLastMessageIsCapped() {
+        readReceipts.ack(LOW, HIGH, Long.MAX_VALUE);
+        assertEquals(LAST, readReceipts.readUpTo(LOW, HIGH));
+
+        readReceipts.flush();
+
+        assertEquals(LAST, jdbc.queryForObject(
+                "SELECT read_low_id FROM conversation_summary WHERE pair_low_id = ? AND pair_high_id = ?",
+                Long.class, LOW, HIGH));
+        assertEquals(0, jdbc.queryForObject(
+                "SELECT unread_low FROM conversation_summary WHERE pair_low_id = ? AND pair_high_id = ?",
+                Integer.class, LOW, HIGH));
+        assertEquals(1, receipts.size());
+        assertEquals("/queue/receipts/" + HIGH, SimpMessageHeaderAccessor.getDestination(receipts.get(0).getHeaders()));
+        assertTrue(payload(receipts.get(0)).contains("\"lastReadId\":" + LAST));
+    }
+
+    @Test
+    void repeatedAckSendsNoSecondReceipt() {
+        readReceipts.ack(LOW, HIGH, LAST);
+        readReceipts.flush();
+        assertEquals(1, receipts.size());
+
+        readReceipts.ack(LOW, HIGH, LAST);
+        readReceipts.flush();
+        assertEquals(1, receipts.size());
+    }
+
+    @Test
+    void ackWithoutConversationSendsNothing() {
+        readReceipts.ack(LOW, 9103L, 42L);
+        readReceipts.flush();
+
+        assertTrue(receipts.isEmpty());
+        assertEquals(0L, readReceipts.readUpTo(LOW, 9103L));
+    }
+
+    private static String payload(Message<?> m) {
+        return new String((byte[]) m.getPayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.dto.UserSearchPage;
+import com.alumnibridge.entity.Profile;
+import com.alumnibridge.entity.Skill;
+import com.alumnibridge.entity.User;
+import com.alumnibridge.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Free text reaches names, emails and skills; page totals agree with the rows they count
+@SpringBootTest
+@Transactional
+class UserSearchTests {
+
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserDirectoryIndex directoryIndex;
+    @Autowired private NameTrigramIndex nameIndex;
+    @Autowired private SkillIndex skillIndex;
+    @Autowired private EntityManager em;
+
+    private User asha;
+    private User kiran;
+
+    @BeforeEach
+    void setUp() {
+        asha = user("Asha Varghese", "asha.v", "IIT Delhi");
+        kiran = user("Kiran Mehta", "zqk.mehta", "IIT Delhi");
+        em.flush();
+        directoryIndex.rebuild();
+        nameIndex.rebuild();
+        // in memory only, so nothing is left in the skills table
+        skillIndex.onSkillsChanged(new UserSkillsChangedEvent(kiran.getId(),
+                List.of(new Skill(990001L, "zq orchestration", "Zq Orchestration"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        skillIndex.onSkillsChanged(new UserSkillsChangedEvent(kiran.getId(), List.of()));
+    }
+
+    @Test
+    void freeTextMatchesEmailPrefixAndSkills() {
+        assertEquals(List.of(kiran.getId()), ids(search("zqk.meh")));
+        assertEquals(List.of(kiran.getId()), ids(search("orchestrat")));
+        assertEquals(asha.getId(), ids(search("Asha Varghese")).get(0));
+    }
+
+    @Test
+    void emailPrefixWildcardsAreLiteral() {
+        assertFalse(ids(search("%")).contains(asha.getId()));
+        assertFalse(ids(search("zqk_")).contains(kiran.getId()));
+        assertTrue(ids(search("zqk.")).contains(kiran.getId()));
+    }
+
+    @Test
+    void totalEstimateCountsTheRowsThePageReturns() {
+        // the bitmap index matches institutes case-insensitively, the SQL filter by collation
+        for (String institute : List.of("IIT Delhi", "iit delhi")) {
+            UserSearchPage page = userService.searchUsersPage(null, null, institute, null, null, null, false, null, 100);
+            assertEquals(page.getItems().size(), page.getTotalEstimate(), institute);
+        }
+    }
+
+    private UserSearchPage search(String q) {
+        return userService.searchUsersPage(q, null, null, null, null, null, false, null, 100);
+    }
+
+    private static List<Long> ids(UserSearchPage page) {
+        return page.getItems().stream().map(UserDto::getId).toList();
+    }
+
+    private User user(String name, String emailLocal, String institute) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(emailLocal + "@example.com");
+        u.setPassword("x");
+        u.setRole(User.Role.ALUMNI);
+
+        Profile p = new Profile();
+        p.setUser(u);
+        p.setInstitute(institute);
+        u.setProfile(p);
+        return userRepository.save(u);
+    }
+}
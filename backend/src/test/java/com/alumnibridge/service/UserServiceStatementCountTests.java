@@ -0,0 +1,146 @@
+package com.alumnibridge.service;
+
+import com.alumnibridge.dto.ConnectionRequestDto;
+import com.alumnibridge.dto.UserDto;
+import com.alumnibridge.entity.*;
+import com.alumnibridge.repository.BatchRepository;
+import com.alumnibridge.repository.ConnectionRequestRepository;
+import com.alumnibridge.repository.DegreeRepository;
+import com.alumnibridge.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Each endpoint must hydrate its users in a fixed number of statements, whatever the list size
+@SpringBootTest
+@Transactional
+class UserServiceStatementCountTests {
+
+    private static final int CONNECTIONS = 50;
+    private static final int RECEIVED = 20;
+    private static final int SENT = 20;
+
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ConnectionRequestRepository connectionRepository;
+    @Autowired private BatchRepository batchRepository;
+    @Autowired private DegreeRepository degreeRepository;
+    @Autowired private ConnectionGraph connectionGraph;
+    @Autowired private UserDirectoryIndex directoryIndex;
+    @Autowired private EntityManager em;
+    @Autowired private EntityManagerFactory emf;
+
+    private Statistics statistics;
+    private User me;
+    private User friend;
+
+    @BeforeEach
+    void setUp() {
+        Batch batch = batchRepository.save(new Batch(null, 2020, null));
+        Degree degree = degreeRepository.save(new Degree(null, "B.Tech"));
+
+        me = user("me", User.Role.ALUMNI, batch, degree);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            User other = user("friend" + i, User.Role.STUDENT, batch, degree);
+            if (i == 0) friend = other;
+            connect(me, other, ConnectionRequest.Status.ACCEPTED);
+        }
+        for (int i = 0; i < RECEIVED; i++) {
+            connect(user("incoming" + i, User.Role.STUDENT, batch, degree), me, ConnectionRequest.Status.PENDING);
+        }
+        for (int i = 0; i < SENT; i++) {
+            connect(me, user("outgoing" + i, User.Role.ALUMNI, batch, degree), ConnectionRequest.Status.PENDING);
+        }
+
+        em.flush();
+        em.clear();
+        connectionGraph.rebuild();
+        directoryIndex.rebuild();
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void activeConnectionsUseOneStatement() {
+        List<UserDto> connections = userService.getActiveConnections(me.getId());
+
+        assertEquals(CONNECTIONS, connections.size());
+        assertTrue(connections.stream().allMatch(u -> "B.Tech".equals(u.getDegreeName()) && u.getBatchYear() == 2020));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void pendingRequestsUseTwoStatements() {
+        List<?> pending = userService.getPendingRequests(me.getId());
+
+        assertEquals(RECEIVED, pending.size());
+        ConnectionRequestDto first = (ConnectionRequestDto) pending.get(0);
+        assertNotNull(first.getSender().getDegreeName());
+        assertEquals(me.getId(), first.getReceiver().getId());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void sentRequestsUseTwoStatements() {
+        List<?> sent = userService.getSentRequests(me.getId());
+
+        assertEquals(SENT, sent.size());
+        ConnectionRequestDto first = (ConnectionRequestDto) sent.get(0);
+        assertEquals(me.getId(), first.getSender().getId());
+        assertEquals(2020, first.getReceiver().getBatchYear());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void profileUsesOneStatement() {
+        UserDto profile = userService.getProfile(friend.getId());
+
+        assertEquals("B.Tech", profile.getDegreeName());
+        assertEquals(2020, profile.getBatchYear());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchHydratesMatchesInOneStatement() {
+        List<UserDto> students = userService.searchUsers(null, "B.Tech", null, 2020, "STUDENT", null, false);
+
+        assertEquals(CONNECTIONS + RECEIVED, students.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User user(String name, User.Role role, Batch batch, Degree degree) {
+        User u = new User();
+        u.setName(name);
+        u.setEmail(name + "@example.com");
+        u.setPassword("x");
+        u.setRole(role);
+
+        Profile p = new Profile();
+        p.setUser(u);
+        p.setInstitute("IIT");
+        p.setBatch(batch);
+        p.setDegree(degree);
+        p.setDegreeName(degree.getName());
+        u.setProfile(p);
+        return userRepository.save(u);
+    }
+
+    private void connect(User sender, User receiver, ConnectionRequest.Status status) {
+        ConnectionRequest cr = new ConnectionRequest();
+        cr.setSender(sender);
+        cr.setReceiver(receiver);
+        cr.setStatus(status);
+        connectionRepository.save(cr);
+    }
+}
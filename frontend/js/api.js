@@ -193,6 +193,29 @@ async function getConnectionRequests() {
   return apiCall("/users/requests", { method: "GET" });
 }
 
+// Get connection status with many users at once, keyed by user id
+async function getConnectionStatuses(userIds) {
+  return apiCall("/users/connection-status/bulk", {
+    method: "POST",
+    body: JSON.stringify(userIds),
+  });
+}
+
+// Get mutual connection counts with many users at once, keyed by user id
+async function getMutualConnectionCounts(userIds) {
+  return apiCall("/users/mutual-connections/bulk", {
+    method: "POST",
+    body: JSON.stringify(userIds),
+  });
+}
+
+// Get mutual connections with one user (count, plus the first `limit` users)
+async function getMutualConnections(userId, limit = 0) {
+  return apiCall(`/users/${userId}/mutual-connections?limit=${limit}`, {
+    method: "GET",
+  });
+}
+
 // Accept connection request
 async function acceptConnectionRequest(requestId) {
   return apiCall(`/users/requests/${requestId}/accept`, { method: "POST" });
@@ -457,6 +480,9 @@ if (typeof module !== "undefined" && module.exports) {
     getSentConnectionRequests,
     getActiveConnections,
     getConnectionStatus,
+    getConnectionStatuses,
+    getMutualConnectionCounts,
+    getMutualConnections,
     getConnectionRequests,
     acceptConnectionRequest,
     rejectConnectionRequest,
@@ -7,6 +7,7 @@
 
 const API_BASE = "http://localhost:8080/api";
 const WS_URL = "http://localhost:8080/ws";
+const PAGE_SIZE = 50;
 
 // =============================================
 // STATE
@@ -18,10 +19,18 @@ const state = {
   connections: [],
   filteredConnections: [],
   messages: [],
+  nextBefore: null, // cursor for the next older page, null when the start is loaded
+  nextAfter: null, // newest message id loaded
+  loadingOlder: false,
+  readUpTo: 0, // how far the other user has read
   stompClient: null,
   connected: false,
   heartbeatInterval: null,
   pollingInterval: null,
+  syncEpoch: null, // server's sync epoch/version/message cursor, see syncChat
+  syncVersion: 0,
+  syncAfter: null,
+  syncing: false,
 };
 
 // =============================================
@@ -80,6 +89,9 @@ async function apiRequest(endpoint, options = {}) {
     throw new Error("Unauthorized");
   }
 
+  // Not modified: nothing new since the last sync
+  if (response.status === 304) return null;
+
   if (!response.ok) {
     const error = await response.json().catch(() => ({}));
     throw new Error(error.message || "Request failed");
@@ -102,7 +114,7 @@ function connectWebSocket() {
   state.stompClient.debug = null;
 
   state.stompClient.connect(
-    {},
+    { Authorization: `Bearer ${getToken()}` },
     () => {
       state.connected = true;
       console.log("WebSocket connected");
@@ -113,6 +125,21 @@ function connectWebSocket() {
           `/queue/messages/${state.currentUserId}`,
           onMessageReceived
         );
+        // New or removed connections change the sidebar
+        state.stompClient.subscribe(
+          `/queue/connections/${state.currentUserId}`,
+          onConnectionEvent
+        );
+        // Read receipts for messages we sent
+        state.stompClient.subscribe(
+          `/queue/receipts/${state.currentUserId}`,
+          onReadReceipt
+        );
+        // Messages the server could not accept
+        state.stompClient.subscribe(
+          `/queue/errors/${state.currentUserId}`,
+          onSendError
+        );
       }
     },
     (error) => {
@@ -134,22 +161,88 @@ function onMessageReceived(payload) {
       (message.senderId === state.selectedChat.userId ||
         message.receiverId === state.selectedChat.userId)
     ) {
-      appendMessage({
+      const received = {
         id: message.id || Date.now(),
         senderId: message.senderId,
         content: message.content,
         timestamp: message.timestamp || new Date().toISOString(),
-      });
+      };
+      state.messages.push(received);
+      if (message.id) {
+        state.nextAfter = Math.max(state.nextAfter || 0, message.id);
+        ackReadSoon();
+      }
+      appendMessage(received);
       scrollToBottom();
     }
 
-    // Refresh connections list to update last message
-    loadConnections();
+    // Refresh the sidebar's last message and unread count
+    syncChat();
   } catch (e) {
     console.error("Error parsing message:", e);
   }
 }
 
+function onConnectionEvent(payload) {
+  try {
+    const event = JSON.parse(payload.body);
+    if (event.type === "ACCEPTED" || event.type === "DISCONNECTED") {
+      loadConnections();
+    }
+  } catch (e) {
+    console.error("Error parsing connection event:", e);
+  }
+}
+
+function onReadReceipt(payload) {
+  try {
+    const receipt = JSON.parse(payload.body);
+    if (state.selectedChat && receipt.readerId === state.selectedChat.userId
+        && receipt.lastReadId > state.readUpTo) {
+      state.readUpTo = receipt.lastReadId;
+      renderMessages();
+    }
+  } catch (e) {
+    console.error("Error parsing read receipt:", e);
+  }
+}
+
+function onSendError(payload) {
+  try {
+    const error = JSON.parse(payload.body);
+    // drop the optimistic copy so the retry isn't shown twice
+    state.messages = state.messages.filter(
+      (m) => !(String(m.id).startsWith("temp-") && m.content === error.content)
+    );
+    renderMessages();
+    alert(error.message || "Failed to send message. Please try again.");
+  } catch (e) {
+    console.error("Error parsing send error:", e);
+  }
+}
+
+// Tell the server how far the open conversation has been read
+function ackRead() {
+  if (!state.selectedChat || !state.nextAfter) return;
+  const otherUserId = state.selectedChat.userId;
+  const messageId = state.nextAfter;
+
+  if (state.stompClient && state.connected) {
+    state.stompClient.send(
+      "/app/chat.read",
+      {},
+      JSON.stringify({ otherUserId, messageId })
+    );
+    return;
+  }
+  apiRequest(`/messages/${otherUserId}/read`, {
+    method: "POST",
+    body: JSON.stringify({ messageId }),
+  }).catch((error) => console.error("Failed to mark messages read:", error));
+}
+
+const ackReadSoon = debounce(ackRead, 1000);
+
 function sendViaWebSocket(recipientId, content) {
   if (!state.stompClient || !state.connected) {
     console.warn("WebSocket not connected, using REST API");
@@ -160,7 +253,6 @@ function sendViaWebSocket(recipientId, content) {
     "/app/chat.send",
     {},
     JSON.stringify({
-      senderId: state.currentUserId,
       receiverId: recipientId,
       content: content,
       isEventLink: false,
@@ -203,9 +295,15 @@ async function loadConnections() {
 }
 
 async function loadMessages(userId) {
+  state.nextBefore = null;
+  state.nextAfter = null;
+  state.readUpTo = 0;
   try {
-    const messages = await apiRequest(`/messages/${userId}`);
-    state.messages = Array.isArray(messages) ? messages : [];
+    const page = await apiRequest(`/messages/${userId}?limit=${PAGE_SIZE}`);
+    state.messages = Array.isArray(page?.messages) ? page.messages : [];
+    state.nextBefore = page?.nextBefore ?? null;
+    state.nextAfter = page?.newestId ?? null;
+    state.readUpTo = page?.readUpTo ?? 0;
     renderMessages();
     scrollToBottom();
   } catch (error) {
@@ -218,6 +316,132 @@ async function loadMessages(userId) {
   }
 }
 
+// Prepend the next older page, keeping the visible messages where they are
+async function loadOlderMessages() {
+  if (!state.selectedChat || state.nextBefore == null || state.loadingOlder) return;
+
+  const userId = state.selectedChat.userId;
+  state.loadingOlder = true;
+  try {
+    const page = await apiRequest(
+      `/messages/${userId}?before=${state.nextBefore}&limit=${PAGE_SIZE}`
+    );
+    if (state.selectedChat?.userId !== userId) return;
+
+    const area = selectors.messagesArea;
+    const fromBottom = area.scrollHeight - area.scrollTop;
+    state.messages = [...(page.messages || []), ...state.messages];
+    state.nextBefore = page.nextBefore ?? null;
+    renderMessages();
+    area.scrollTop = area.scrollHeight - fromBottom;
+  } catch (error) {
+    console.error("Failed to load older messages:", error);
+  } finally {
+    state.loadingOlder = false;
+  }
+}
+
+// Ask the server what changed since the last sync: 304 (nothing) is the common case,
+// otherwise new messages after our cursor and the conversations whose summary changed
+async function syncChat() {
+  if (state.syncing) return;
+  state.syncing = true;
+  try {
+    let delta;
+    do {
+      const params = new URLSearchParams({ version: state.syncVersion });
+      if (state.syncEpoch !== null) params.set("epoch", state.syncEpoch);
+      if (state.syncAfter !== null) params.set("after", state.syncAfter);
+
+      delta = await apiRequest(`/chat/sync?${params}`);
+      if (!delta) return;
+
+      state.syncEpoch = delta.epoch;
+      state.syncVersion = delta.version;
+      state.syncAfter = delta.nextAfter;
+      applySyncedMessages(delta.messages || []);
+      applyConversationChanges(delta.conversations || []);
+    } while (delta.hasMore);
+  } catch (error) {
+    console.error("Chat sync failed:", error);
+  } finally {
+    state.syncing = false;
+  }
+}
+
+function applySyncedMessages(messages) {
+  if (!state.selectedChat || messages.length === 0) return;
+  const otherId = state.selectedChat.userId;
+  const known = new Set(state.messages.map((m) => m.id));
+  const fresh = messages.filter(
+    (m) =>
+      !known.has(m.id) &&
+      ((m.senderId === otherId && m.recipientId == state.currentUserId) ||
+        (m.recipientId === otherId && m.senderId == state.currentUserId))
+  );
+  if (fresh.length === 0) return;
+
+  // server copies of our own messages replace the optimistic ones
+  const ownArrived = fresh.some((m) => m.senderId == state.currentUserId);
+  const kept = ownArrived
+    ? state.messages.filter((m) => !String(m.id).startsWith("temp-"))
+    : state.messages;
+  // another server may commit a message a moment after a newer one: keep id order
+  state.messages = [...kept, ...fresh].sort((a, b) => {
+    const at = String(a.id).startsWith("temp-");
+    const bt = String(b.id).startsWith("temp-");
+    if (at || bt) return at === bt ? 0 : at ? 1 : -1;
+    return a.id - b.id;
+  });
+  state.nextAfter = Math.max(state.nextAfter || 0, ...fresh.map((m) => m.id));
+  renderMessages();
+  scrollToBottom();
+  ackReadSoon();
+}
+
+function applyConversationChanges(conversations) {
+  if (conversations.length === 0) return;
+  let unknown = false;
+  conversations.forEach((conv) => {
+    const conn = state.connections.find((c) => c.id === conv.userId);
+    if (!conn) {
+      unknown = true;
+      return;
+    }
+    conn.lastMessage = conv.lastMessage;
+    conn.lastMessageAt = conv.lastMessageAt;
+    conn.unreadCount = conv.unreadCount;
+  });
+
+  // someone we don't list yet: reload the sidebar instead
+  if (unknown) {
+    loadConnections();
+    return;
+  }
+  sortConnections();
+  applySidebarFilter();
+  renderConnections();
+}
+
+// Latest conversation first, then online users, as the server orders them
+function sortConnections() {
+  state.connections.sort((a, b) => {
+    if (a.lastMessageAt && b.lastMessageAt) {
+      return new Date(b.lastMessageAt) - new Date(a.lastMessageAt);
+    }
+    if (a.lastMessageAt) return -1;
+    if (b.lastMessageAt) return 1;
+    return Number(!!b.isOnline) - Number(!!a.isOnline);
+  });
+}
+
+function applySidebarFilter() {
+  const term = selectors.sidebarSearch?.value.toLowerCase() || "";
+  state.filteredConnections = state.connections.filter((c) =>
+    c.name.toLowerCase().includes(term)
+  );
+}
+
 // =============================================
 // RENDER FUNCTIONS
 // =============================================
@@ -254,6 +478,7 @@ function renderConnections() {
             <div class="connection-preview">${lastMsg}</div>
           </div>
           ${timeAgo ? `<div class="connection-time">${timeAgo}</div>` : ""}
+          ${conn.unreadCount && !isActive ? `<span class="unread-badge">${conn.unreadCount}</span>` : ""}
         </div>
       `;
     })
@@ -276,6 +501,14 @@ function renderMessages() {
   let html = "";
   let lastDate = null;
 
+  // "Seen" goes under the newest sent message the other user has read
+  let seenId = null;
+  messages.forEach((msg) => {
+    if (msg.senderId == state.currentUserId && typeof msg.id === "number" && msg.id <= state.readUpTo) {
+      seenId = msg.id;
+    }
+  });
+
   messages.forEach((msg) => {
     const msgDate = new Date(msg.timestamp).toDateString();
 
@@ -294,6 +527,7 @@ function renderMessages() {
           <div class="message-content">${escapeHtml(msg.content)}</div>
           <div class="message-time">${time}</div>
         </div>
+        ${msg.id === seenId ? `<div class="message-seen">Seen</div>` : ""}
       </div>
     `;
   });
@@ -430,6 +664,7 @@ async function sendMessage() {
     content: content,
     timestamp: new Date().toISOString(),
   };
+  state.messages.push(tempMsg);
   appendMessage(tempMsg);
   scrollToBottom();
 
@@ -451,8 +686,8 @@ async function sendMessage() {
     }
   }
 
-  // Refresh connections to update last message
-  setTimeout(loadConnections, 500);
+  // Refresh the sidebar once the message is written
+  setTimeout(syncChat, 500);
 }
 
 function scrollToBottom() {
@@ -493,13 +728,8 @@ function startHeartbeat() {
 }
 
 function startPolling() {
-  // Poll for new messages every 5 seconds (fallback for WebSocket)
-  state.pollingInterval = setInterval(async () => {
-    if (state.selectedChat) {
-      await loadMessages(state.selectedChat.userId);
-    }
-    await loadConnections();
-  }, 5000);
+  // Sync every 5 seconds; an unchanged chat costs one 304
+  state.pollingInterval = setInterval(syncChat, 5000);
 }
 
 function stopPolling() {
@@ -579,11 +809,8 @@ function attachEventListeners() {
   // Sidebar search
   selectors.sidebarSearch?.addEventListener(
     "input",
-    debounce((e) => {
-      const term = e.target.value.toLowerCase();
-      state.filteredConnections = state.connections.filter((c) =>
-        c.name.toLowerCase().includes(term)
-      );
+    debounce(() => {
+      applySidebarFilter();
       renderConnections();
     }, 300)
   );
@@ -597,6 +824,11 @@ function attachEventListeners() {
     }
   });
 
+  // Load older messages when scrolled to the top
+  selectors.messagesArea?.addEventListener("scroll", () => {
+    if (selectors.messagesArea.scrollTop < 40) loadOlderMessages();
+  });
+
   // Send button
   selectors.sendBtn?.addEventListener("click", sendMessage);
 
@@ -665,10 +897,13 @@ async function init() {
   // Load connections
   await loadConnections();
 
+  // First sync sets the cursor the polling continues from
+  await syncChat();
+
   // Start heartbeat
   startHeartbeat();
 
-  // Start polling as fallback
+  // Start delta sync polling
   startPolling();
 
   // Attach event listeners
@@ -6,6 +6,7 @@
  */
 
 const API_BASE = "http://localhost:8080/api/users";
+const WS_URL = "http://localhost:8080/ws";
 
 // =============================================
 // STATE
@@ -18,6 +19,9 @@ const state = {
   connections: [],
   filteredUsers: [],
   activeTab: "all-users",
+  stompClient: null,
+  lastEventSeq: 0,
+  eventEpoch: null,
 };
 
 // =============================================
@@ -335,6 +339,39 @@ async function rejectRequest(requestId) {
   }
 }
 
+async function respondToAllRequests(accept) {
+  const requestIds = state.receivedRequests.map(request => request.requestId || request.id);
+  if (requestIds.length === 0) return;
+  if (!confirm(`${accept ? "Accept" : "Reject"} all ${requestIds.length} pending requests?`)) return;
+
+  const buttons = document.querySelectorAll('[data-action="accept-all"], [data-action="reject-all"]');
+  buttons.forEach(btn => (btn.disabled = true));
+
+  try {
+    const result = await apiRequest("/connection-requests/bulk-respond", {
+      method: "POST",
+      body: JSON.stringify({ requestIds, accept }),
+    });
+    showAlert(`${result.updated} request${result.updated === 1 ? "" : "s"} ${accept ? "accepted" : "rejected"}`,
+      accept ? "success" : "info");
+
+    await Promise.all([
+      fetchReceivedRequests(),
+      fetchConnections(),
+      fetchAllUsers()
+    ]);
+    renderReceivedRequests();
+    renderConnections();
+    renderAllUsers();
+    updateCounts();
+
+  } catch (error) {
+    showAlert(error.message || "Failed to update requests", "error");
+  } finally {
+    buttons.forEach(btn => (btn.disabled = false));
+  }
+}
+
 async function disconnectUser(userId) {
   if (!confirm("Are you sure you want to remove this connection?")) return;
 
@@ -707,6 +744,12 @@ function attachEventListeners() {
       case "reject":
         rejectRequest(requestId);
         break;
+      case "accept-all":
+        respondToAllRequests(true);
+        break;
+      case "reject-all":
+        respondToAllRequests(false);
+        break;
       case "disconnect":
         disconnectUser(userId);
         break;
@@ -715,37 +758,138 @@ function attachEventListeners() {
 }
 
 // =============================================
-// INITIALIZATION
+// LIVE UPDATES (STOMP /queue/connections/{userId})
 // =============================================
-async function init() {
-  if (!checkAuth()) return;
+function connectLiveUpdates() {
+  if (typeof SockJS === "undefined" || typeof Stomp === "undefined" || !state.currentUserId) return;
+
+  const client = Stomp.over(new SockJS(WS_URL));
+  client.debug = null;
+  state.stompClient = client;
+
+  client.connect(
+    { Authorization: `Bearer ${getToken()}` },
+    async () => {
+      client.subscribe(`/queue/connections/${state.currentUserId}`, (payload) => {
+        try {
+          applyConnectionEvents([JSON.parse(payload.body)]);
+        } catch (e) {
+          console.error("Error parsing connection event:", e);
+        }
+      });
+      // pick up anything that happened while we were disconnected
+      await catchUpConnectionEvents();
+    },
+    (error) => {
+      console.error("WebSocket connection error:", error);
+      setTimeout(connectLiveUpdates, 5000);
+    }
+  );
+}
 
-  // Show loading in all grids
-  renderLoading(selectors.allUsersGrid);
-  renderLoading(selectors.sentRequestsGrid);
-  renderLoading(selectors.receivedRequestsGrid);
-  renderLoading(selectors.connectionsGrid);
+async function catchUpConnectionEvents() {
+  try {
+    const epoch = state.eventEpoch ? `&epoch=${state.eventEpoch}` : "";
+    const delta = await apiRequest(`/connection-events?since=${state.lastEventSeq}${epoch}`);
+    const firstSync = state.eventEpoch === null;
+    state.eventEpoch = delta.epoch;
+
+    if (firstSync) {
+      // lists are loaded right after this, so only the position matters
+      state.lastEventSeq = delta.latest;
+    } else if (delta.resync) {
+      state.lastEventSeq = delta.latest;
+      await reloadAll();
+    } else {
+      await applyConnectionEvents(delta.events);
+    }
+  } catch (error) {
+    console.error("Failed to sync connection events:", error);
+  }
+}
 
-  // Fetch current user first
-  await fetchCurrentUser();
+async function applyConnectionEvents(events) {
+  const fresh = events.filter((event) => event.seq > state.lastEventSeq);
+  if (fresh.length === 0) return;
+  state.lastEventSeq = Math.max(...fresh.map((event) => event.seq));
+
+  const refresh = new Set();
+  fresh.forEach((event) => {
+    const incoming = event.receiverId === state.currentUserId;
+    switch (event.type) {
+      case "REQUESTED":
+        refresh.add(incoming ? "received" : "sent");
+        if (incoming && event.senderName) {
+          showAlert(`${event.senderName} wants to connect`, "info");
+        }
+        break;
+      case "ACCEPTED":
+        refresh.add(incoming ? "received" : "sent").add("connections");
+        if (!incoming && event.receiverName) {
+          showAlert(`${event.receiverName} accepted your request`, "success");
+        }
+        break;
+      case "REJECTED":
+        refresh.add(incoming ? "received" : "sent");
+        break;
+      case "DISCONNECTED":
+        refresh.add("sent").add("received").add("connections");
+        break;
+    }
+  });
 
-  // Fetch all data in parallel
+  await Promise.all([
+    refresh.has("sent") ? fetchSentRequests() : null,
+    refresh.has("received") ? fetchReceivedRequests() : null,
+    refresh.has("connections") ? fetchConnections() : null,
+  ]);
+  if (refresh.has("sent")) renderSentRequests();
+  if (refresh.has("received")) renderReceivedRequests();
+  if (refresh.has("connections")) renderConnections();
+  renderAllUsers();
+  updateCounts();
+}
+
+async function reloadAll() {
   await Promise.all([
     fetchAllUsers(),
     fetchSentRequests(),
     fetchReceivedRequests(),
     fetchConnections()
   ]);
-
-  // Render all sections
   renderAllUsers();
   renderSentRequests();
   renderReceivedRequests();
   renderConnections();
   updateCounts();
+}
+
+// =============================================
+// INITIALIZATION
+// =============================================
+async function init() {
+  if (!checkAuth()) return;
+
+  // Show loading in all grids
+  renderLoading(selectors.allUsersGrid);
+  renderLoading(selectors.sentRequestsGrid);
+  renderLoading(selectors.receivedRequestsGrid);
+  renderLoading(selectors.connectionsGrid);
+
+  // Fetch current user first
+  await fetchCurrentUser();
+
+  // Note the event position before loading, so nothing between the two is missed
+  await catchUpConnectionEvents();
+
+  // Fetch and render all sections
+  await reloadAll();
 
   // Attach event listeners
   attachEventListeners();
+
+  // Changes made elsewhere arrive over the websocket instead of by reloading
+  connectLiveUpdates();
 }
 
 function goBack() {
@@ -9,6 +9,14 @@
 let currentUser = null;
 let allResults = [];
 let connectionStatuses = {};
+let mutualCounts = {};
+
+// Paging state of the current search: its filters, the cursor for the next page, and a
+// counter so a page that arrives after a newer search started is ignored
+let searchParams = null;
+let nextCursor = null;
+let totalEstimate = 0;
+let searchSeq = 0;
 
 /**
  * Initialize search page
@@ -71,7 +79,7 @@ async function populateFilters() {
 }
 
 /**
- * Perform search with current filters
+ * Perform search with current filters (first page)
  */
 async function performSearch() {
   const resultsContainer = document.getElementById("searchResults");
@@ -81,27 +89,25 @@ async function performSearch() {
   const degree = document.getElementById("filterDegree").value;
   const institute = document.getElementById("filterInstitute").value;
   const batch = document.getElementById("filterBatch").value;
+  const role = document.getElementById("filterRole").value;
+
+  // Build query params; every filter is applied by the server
+  const params = new URLSearchParams();
+  if (query) params.append("q", query);
+  if (degree) params.append("degree", degree);
+  if (institute) params.append("institute", institute);
+  if (batch) params.append("batchYear", batch);
+  if (role) params.append("role", role);
+  params.append("limit", "50");
+
+  const seq = ++searchSeq;
+  searchParams = params;
+  allResults = [];
+  connectionStatuses = {};
+  mutualCounts = {};
 
   try {
-    // Build query params
-    const params = new URLSearchParams();
-    if (query) params.append("q", query);
-    if (degree) params.append("degree", degree);
-    if (institute) params.append("institute", institute);
-    if (batch) params.append("batchYear", batch);
-
-    const response = await apiCall(`/users/search?${params.toString()}`, {
-      method: "GET",
-    });
-
-    // Filter out current user
-    allResults = response.filter((user) => user.id !== currentUser?.id);
-
-    // Load connection statuses for all results
-    await loadConnectionStatuses(allResults);
-
-    // Apply local role filter
-    filterResults();
+    await loadPage(seq, null);
   } catch (error) {
     console.error("Search error:", error);
     resultsContainer.innerHTML =
@@ -110,41 +116,78 @@ async function performSearch() {
 }
 
 /**
- * Load connection statuses for all users
+ * Load the next page of the current search
  */
-async function loadConnectionStatuses(users) {
-  connectionStatuses = {};
-
-  // Load statuses in parallel (with batching to avoid too many requests)
-  const batchSize = 10;
-  for (let i = 0; i < users.length; i += batchSize) {
-    const batch = users.slice(i, i + batchSize);
-    await Promise.all(
-      batch.map(async (user) => {
-        try {
-          const status = await getConnectionStatus(user.id);
-          connectionStatuses[user.id] = status;
-        } catch (error) {
-          console.error(`Error getting status for user ${user.id}:`, error);
-          connectionStatuses[user.id] = { status: "NONE", canConnect: true };
-        }
-      })
-    );
+async function loadMoreResults() {
+  if (!nextCursor) return;
+  try {
+    await loadPage(searchSeq, nextCursor);
+  } catch (error) {
+    console.error("Error loading more results:", error);
   }
 }
 
 /**
- * Filter results by role (local filter)
+ * Fetch one page ({ items, nextCursor, totalEstimate }) and append it
  */
-function filterResults() {
-  const roleFilter = document.getElementById("filterRole").value;
+async function loadPage(seq, cursor) {
+  const params = new URLSearchParams(searchParams);
+  if (cursor) params.append("cursor", cursor);
+
+  const response = await apiCall(`/users/search?${params.toString()}`, {
+    method: "GET",
+  });
+  if (seq !== searchSeq) return;
+
+  // Filter out current user
+  const users = response.items.filter((user) => user.id !== currentUser?.id);
+  allResults = allResults.concat(users);
+  nextCursor = response.nextCursor;
+  totalEstimate = response.totalEstimate;
+
+  // Load connection statuses for the new page
+  await loadConnectionStatuses(users);
+  if (seq !== searchSeq) return;
+
+  filterResults();
+}
+
+/**
+ * Load connection statuses for a page of users (merged into what is loaded)
+ */
+async function loadConnectionStatuses(users) {
+  if (users.length === 0) return;
 
-  let filtered = allResults;
-  if (roleFilter) {
-    filtered = allResults.filter((user) => user.role === roleFilter);
+  // One request each for the whole page
+  const ids = users.map((user) => user.id);
+  getMutualConnectionCounts(ids)
+    .then((counts) => {
+      Object.assign(mutualCounts, counts || {});
+      filterResults();
+    })
+    .catch((error) => console.error("Error getting mutual connections:", error));
+
+  try {
+    const statuses = await getConnectionStatuses(ids);
+    users.forEach((user) => {
+      connectionStatuses[user.id] = statuses[user.id] || {
+        status: "NONE",
+        canConnect: true,
+      };
+    });
+  } catch (error) {
+    console.error("Error getting connection statuses:", error);
+    users.forEach((user) => {
+      connectionStatuses[user.id] = { status: "NONE", canConnect: true };
+    });
   }
+}
 
-  displayResults(filtered);
+/**
+ * Re-render the loaded results
+ */
+function filterResults() {
+  displayResults(allResults);
 }
 
 /**
@@ -152,7 +195,9 @@ function filterResults() {
  */
 function displayResults(users) {
   const resultsContainer = document.getElementById("searchResults");
-  document.getElementById("resultsCount").textContent = `(${users.length})`;
+  document.getElementById("resultsCount").textContent = `(${
+    nextCursor ? totalEstimate : users.length
+  })`;
 
   if (!users || users.length === 0) {
     resultsContainer.innerHTML = `
@@ -165,9 +210,13 @@ function displayResults(users) {
     return;
   }
 
-  resultsContainer.innerHTML = users
-    .map((user) => createUserCard(user))
-    .join("");
+  resultsContainer.innerHTML =
+    users.map((user) => createUserCard(user)).join("") +
+    (nextCursor
+      ? `<div class="loading">
+           <button class="btn btn-outline" onclick="loadMoreResults()">Load more</button>
+         </div>`
+      : "");
 }
 
 /**
@@ -185,6 +234,7 @@ function createUserCard(user) {
   };
   const statusBadge = getStatusBadge(status);
   const actionButtons = getActionButtons(user.id, status);
+  const mutual = mutualCounts[user.id] || 0;
 
   return `
         <div class="user-card" data-user-id="${user.id}">
@@ -221,6 +271,13 @@ function createUserCard(user) {
                     ? `<p><span class="icon">📍</span> ${user.location}</p>`
                     : ""
                 }
+                ${
+                  mutual > 0
+                    ? `<p><span class="icon">👥</span> ${mutual} mutual connection${
+                        mutual === 1 ? "" : "s"
+                      }</p>`
+                    : ""
+                }
             </div>
             <div class="user-actions">
                 ${actionButtons}